@@ -0,0 +1,93 @@
+package benchmark;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.openjdk.jmh.annotations.*;
+import repository.OrderMapRepo;
+import repository.OrderRepo;
+import repository.ProductRepo;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained per stored order when baskets are fresh product lists ({@code list}, what addOrder used to build)
+ * versus shared ordinal baskets from {@link ProductRepo#getBasketByIds(List)} ({@code interned}).
+ * Orders draw their baskets from a small set of hot products. The score is the fill time; the interesting
+ * number is the secondary result {@code heapBytesPerOrder}. Keep a single measurement iteration, aux counters add up.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class BasketFootprintBenchmark {
+
+    @Param({"list", "interned"})
+    public String basket;
+
+    @Param({"1000000"})
+    public int orderCount;
+
+    @Param({"20"})
+    public int hotProducts;
+
+    @Param({"3"})
+    public int basketSize;
+
+    private ProductRepo productRepo;
+    private List<List<String>> productIdsPerOrder;
+    private OrderRepo orderRepo;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerOrder;
+    }
+
+    @Setup(Level.Trial)
+    public void createBaskets() {
+        productRepo = BenchmarkData.productRepo(hotProducts);
+        Random random = new Random(BenchmarkData.SEED);
+        productIdsPerOrder = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            List<String> productIds = new ArrayList<>(basketSize);
+            for (int j = 0; j < basketSize; j++) {
+                productIds.add(String.valueOf(random.nextInt(hotProducts)));
+            }
+            productIdsPerOrder.add(productIds);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropRepository() {
+        orderRepo = null;
+    }
+
+    @Benchmark
+    public OrderRepo fill(Footprint footprint) {
+        long heapBefore = usedHeapAfterGc();
+
+        orderRepo = new OrderMapRepo();
+        boolean interned = "interned".equals(basket);
+        for (int i = 0; i < orderCount; i++) {
+            List<String> productIds = productIdsPerOrder.get(i);
+            Optional<List<Product>> products = interned ? productRepo.getBasketByIds(productIds) : productRepo.getProductsByIds(productIds);
+            orderRepo.addOrder(new Order(String.valueOf(i), products.orElseThrow(), OrderStatus.PROCESSING, BenchmarkData.START));
+        }
+
+        footprint.heapBytesPerOrder = (usedHeapAfterGc() - heapBefore) / orderCount;
+        return orderRepo;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,109 @@
+package benchmark;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import repository.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible benchmark data. Everything is derived from a fixed seed, so two runs see the same input.
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 42;
+    public static final ZonedDateTime START = ZonedDateTime.parse("2025-01-01T10:00:00+01:00[Europe/Berlin]");
+
+    private BenchmarkData() {
+    }
+
+    public static ProductRepo productRepo(int productCount) {
+        ProductRepo productRepo = new ProductRepo();
+        for (int i = 0; i < productCount; i++) {
+            productRepo.addProduct(new Product(String.valueOf(i), "Product " + i));
+        }
+        return productRepo;
+    }
+
+    public static OrderRepo orderRepo(String kind) {
+        return switch (kind) {
+            case "map" -> new OrderMapRepo();
+            case "list" -> new OrderListRepo();
+            case "concurrent" -> new ConcurrentOrderRepo();
+            default -> throw new IllegalArgumentException("Unknown order repo: " + kind);
+        };
+    }
+
+    /**
+     * Orders with ids "0".."count-1", one second apart, seeded random baskets
+     * and statuses spread evenly over all OrderStatus values.
+     */
+    public static List<Order> orders(int count, int basketSize, ProductRepo productRepo) {
+        Random random = new Random(SEED);
+        List<Product> products = productRepo.getProducts();
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Product> basket = new ArrayList<>(basketSize);
+            for (int j = 0; j < basketSize; j++) {
+                basket.add(products.get(random.nextInt(products.size())));
+            }
+            orders.add(new Order(String.valueOf(i), basket, statuses[random.nextInt(statuses.length)], START.plusSeconds(i)));
+        }
+        return orders;
+    }
+
+    public static List<String> productIds(int basketSize, int productCount) {
+        Random random = new Random(SEED);
+        List<String> productIds = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            productIds.add(String.valueOf(random.nextInt(productCount)));
+        }
+        return productIds;
+    }
+
+    /**
+     * Writes a transactions file with one addOrder per order name followed by status changes
+     * (every order goes IN_DELIVERY, every second one COMPLETED), interleaved in a seeded random order.
+     */
+    public static Path commandFile(int orderNames, int basketSize, int productCount) throws IOException {
+        Random random = new Random(SEED);
+        Path file = Files.createTempFile("benchmark-commands", ".txt");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            int[] nextStep = new int[orderNames];
+            int remaining = orderNames;
+            while (remaining > 0) {
+                int name = random.nextInt(orderNames);
+                int step = nextStep[name];
+                if (step == 0) {
+                    writer.write("addOrder O" + name);
+                    for (int i = 0; i < basketSize; i++) {
+                        writer.write(" " + random.nextInt(productCount));
+                    }
+                } else if (step == 1) {
+                    writer.write("setStatus O" + name + " IN_DELIVERY");
+                } else if (step == 2 && name % 2 == 0) {
+                    writer.write("setStatus O" + name + " COMPLETED");
+                } else {
+                    continue;
+                }
+                writer.newLine();
+                nextStep[name]++;
+                if (nextStep[name] == (name % 2 == 0 ? 3 : 2)) {
+                    remaining--;
+                }
+            }
+        }
+        return file;
+    }
+}
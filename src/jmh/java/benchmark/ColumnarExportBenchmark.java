@@ -0,0 +1,77 @@
+package benchmark;
+
+import model.Order;
+import org.openjdk.jmh.annotations.*;
+import repository.ConcurrentOrderRepo;
+import repository.DurableOrderRepo;
+import repository.OrderColumnarFile;
+import repository.OrderMapRepo;
+import repository.OrderRepo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export and import of a columnar order file, next to recovering the same orders from a
+ * {@link DurableOrderRepo} snapshot, which is the fastest way to load orders that existed before.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ColumnarExportBenchmark {
+
+    @Param({"1000000"})
+    public int orderCount;
+
+    private Path directory;
+    private Path columnarFile;
+    private OrderRepo source;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        List<Order> orders = BenchmarkData.orders(orderCount, 3, BenchmarkData.productRepo(1_000));
+        source = new OrderMapRepo();
+        source.addOrders(orders);
+        directory = Files.createTempDirectory("benchmark-columnar");
+        columnarFile = directory.resolve("orders.col");
+        OrderColumnarFile.exportOrders(source, columnarFile);
+        try (DurableOrderRepo repo = new DurableOrderRepo(directory.resolve("durable"), new ConcurrentOrderRepo(), 4096, 0)) {
+            repo.addOrders(orders);
+            repo.snapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int exportColumnar() throws IOException {
+        return OrderColumnarFile.exportOrders(source, directory.resolve("export.col"));
+    }
+
+    @Benchmark
+    public int importColumnar() throws IOException {
+        return OrderColumnarFile.importOrders(columnarFile, new ConcurrentOrderRepo());
+    }
+
+    @Benchmark
+    public int recoverSnapshot() throws IOException {
+        try (DurableOrderRepo repo = new DurableOrderRepo(directory.resolve("durable"), new ConcurrentOrderRepo(), 1, 0)) {
+            return repo.getOrders().size();
+        }
+    }
+}
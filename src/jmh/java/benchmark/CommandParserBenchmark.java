@@ -0,0 +1,95 @@
+package benchmark;
+
+import enums.Commands;
+import enums.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.CommandLineParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line parsing cost of the old split-based path versus {@link CommandLineParser}.
+ * Run with {@code -prof gc} to see the allocation rate per line (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandParserBenchmark {
+
+    @Param({"3"})
+    public int basketSize;
+
+    private char[] content;
+    private int[] lineStarts;
+    private int[] lineEnds;
+    private List<String> lines;
+    private final CommandLineParser parser = new CommandLineParser();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadLines() throws IOException {
+        Path file = BenchmarkData.commandFile(10_000, basketSize, 1_000);
+        lines = Files.readAllLines(file);
+        Files.deleteIfExists(file);
+
+        StringBuilder all = new StringBuilder();
+        lineStarts = new int[lines.size()];
+        lineEnds = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            lineStarts[i] = all.length();
+            all.append(lines.get(i));
+            lineEnds[i] = all.length();
+            all.append('\n');
+        }
+        content = all.toString().toCharArray();
+    }
+
+    private int nextLine() {
+        next = next + 1 == lineStarts.length ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public void splitParser(Blackhole blackhole) {
+        String[] parts = lines.get(nextLine()).split(" ");
+        if (!Commands.isValid(parts[0])) {
+            return;
+        }
+        Commands command = Commands.fromString(parts[0]);
+        blackhole.consume(command);
+        blackhole.consume(parts[1]);
+        if (command == Commands.ADD_ORDER) {
+            blackhole.consume(List.of(parts).subList(2, parts.length));
+        } else if (command == Commands.SET_STATUS && OrderStatus.isValid(parts[2])) {
+            blackhole.consume(OrderStatus.valueOf(parts[2]));
+        }
+    }
+
+    @Benchmark
+    public void tokenizingParser(Blackhole blackhole) {
+        int line = nextLine();
+        parser.parse(content, lineStarts[line], lineEnds[line]);
+        Commands command = parser.command();
+        if (command == null) {
+            return;
+        }
+        blackhole.consume(command);
+        blackhole.consume(parser.token(1));
+        if (command == Commands.ADD_ORDER) {
+            List<String> productIds = parser.tokensFrom(2);
+            for (int i = 0; i < productIds.size(); i++) {
+                blackhole.consume(productIds.get(i));
+            }
+        } else if (command == Commands.SET_STATUS) {
+            blackhole.consume(parser.orderStatus(2));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package benchmark;
+
+import model.Order;
+import org.openjdk.jmh.annotations.*;
+import repository.ConcurrentOrderRepo;
+import repository.DurableOrderRepo;
+import repository.ProductRepo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput of the write-ahead log for different fsync batch sizes, and recovery time
+ * from a log only versus from a snapshot. Results depend heavily on the disk the temp directory lives on.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurableOrderRepoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class WriteState {
+
+        @Param({"1", "16", "256"})
+        public int syncBatchSize;
+
+        private List<Order> orders;
+        private Path directory;
+        private DurableOrderRepo repo;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void generateOrders() {
+            orders = BenchmarkData.orders(10_000, 3, BenchmarkData.productRepo(1_000));
+        }
+
+        @Setup(Level.Iteration)
+        public void openRepository() throws IOException {
+            directory = Files.createTempDirectory("benchmark-wal");
+            repo = new DurableOrderRepo(directory, new ConcurrentOrderRepo(), syncBatchSize, 0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void deleteRepository() throws IOException {
+            repo.close();
+            deleteRecursively(directory);
+        }
+
+        Order nextOrder() {
+            next = next + 1 == orders.size() ? 0 : next + 1;
+            return orders.get(next);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RecoveryState {
+
+        @Param({"100000"})
+        public int orderCount;
+
+        @Param({"false", "true"})
+        public boolean snapshot;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void writeRepository() throws IOException {
+            ProductRepo productRepo = BenchmarkData.productRepo(1_000);
+            directory = Files.createTempDirectory("benchmark-recovery");
+            try (DurableOrderRepo repo = new DurableOrderRepo(directory, new ConcurrentOrderRepo(), 4096, 0)) {
+                for (Order order : BenchmarkData.orders(orderCount, 3, productRepo)) {
+                    repo.addOrder(order);
+                }
+                if (snapshot) {
+                    repo.snapshot();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteRepository() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Order addOrder(WriteState state) {
+        return state.repo.addOrder(state.nextOrder());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int recover(RecoveryState state) throws IOException {
+        try (DurableOrderRepo repo = new DurableOrderRepo(state.directory, new ConcurrentOrderRepo(), 1, 0)) {
+            return repo.getOrders().size();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
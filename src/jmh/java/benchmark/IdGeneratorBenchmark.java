@@ -0,0 +1,41 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.IdGeneratorRepository;
+import repository.SnowflakeIdGeneratorRepo;
+import repository.StringIdGeneratorRepo;
+import repository.ThreadLocalSequenceIdGeneratorRepo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one id per generator. The generator is shared, so running with {@code -t 4} shows contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    @Param({"uuid", "snowflake", "threadLocal"})
+    public String generator;
+
+    private IdGeneratorRepository idGeneratorRepository;
+
+    @Setup(Level.Trial)
+    public void createGenerator() {
+        idGeneratorRepository = switch (generator) {
+            case "uuid" -> new StringIdGeneratorRepo();
+            case "snowflake" -> new SnowflakeIdGeneratorRepo(1);
+            case "threadLocal" -> new ThreadLocalSequenceIdGeneratorRepo();
+            default -> throw new IllegalArgumentException("Unknown generator: " + generator);
+        };
+    }
+
+    @Benchmark
+    public String generateId() {
+        return idGeneratorRepository.generateId();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import metrics.RecordingShopMetrics;
+import model.Order;
+import org.openjdk.jmh.annotations.*;
+import repository.InstrumentedOrderRepo;
+import repository.OrderRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the instrumentation on the ShopService hot paths: {@code off} uses the default no-op metrics,
+ * {@code on} records into {@link RecordingShopMetrics} in ShopService and an {@link InstrumentedOrderRepo}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final int PRODUCT_COUNT = 10_000;
+    private static final int ORDER_COUNT = 100_000;
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    private ProductRepo productRepo;
+    private List<Order> orders;
+    private List<String> basket;
+    private ShopService shopService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generateData() {
+        productRepo = BenchmarkData.productRepo(PRODUCT_COUNT);
+        orders = BenchmarkData.orders(ORDER_COUNT, 3, productRepo);
+        basket = BenchmarkData.productIds(3, PRODUCT_COUNT);
+    }
+
+    @Setup(Level.Iteration)
+    public void fillRepository() {
+        OrderRepo orderRepo = BenchmarkData.orderRepo("map");
+        for (Order order : orders) {
+            orderRepo.addOrder(order);
+        }
+        if ("on".equals(metrics)) {
+            RecordingShopMetrics recording = new RecordingShopMetrics();
+            shopService = new ShopService(productRepo, new InstrumentedOrderRepo(orderRepo, recording), new StringIdGeneratorRepo());
+            shopService.setMetrics(recording);
+        } else {
+            shopService = new ShopService(productRepo, orderRepo, new StringIdGeneratorRepo());
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public Order addOrder() {
+        return shopService.addOrder(basket);
+    }
+
+    @Benchmark
+    public Order updateOrder() {
+        next = next + 1 == ORDER_COUNT ? 0 : next + 1;
+        Order order = orders.get(next);
+        return shopService.updateOrder(order.id(), order.orderStatus());
+    }
+}
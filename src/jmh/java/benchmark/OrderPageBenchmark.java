@@ -0,0 +1,56 @@
+package benchmark;
+
+import model.Order;
+import model.OrderPage;
+import org.openjdk.jmh.annotations.*;
+import repository.OrderRepo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fetching one keyset page at different depths of the listing. With a time-ordered index the cost
+ * should not depend on {@code depth}, the fraction of the listing already paged through.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPageBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"map", "concurrent"})
+    public String repo;
+
+    @Param({"100000"})
+    public int orderCount;
+
+    @Param({"0.0", "0.5", "0.99"})
+    public double depth;
+
+    private OrderRepo orderRepo;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void fillRepository() {
+        orderRepo = BenchmarkData.orderRepo(repo);
+        List<Order> orders = BenchmarkData.orders(orderCount, 3, BenchmarkData.productRepo(1_000));
+        orderRepo.addOrders(orders);
+
+        // walk to the requested depth once, so the benchmark only measures the next page
+        int pagesToSkip = (int) (orderCount * depth) / PAGE_SIZE;
+        OrderPage page = null;
+        for (int i = 0; i < pagesToSkip; i++) {
+            page = orderRepo.getOrderPage(page == null ? null : page.nextCursor(), PAGE_SIZE);
+        }
+        cursor = page == null ? null : page.nextCursor();
+    }
+
+    @Benchmark
+    public OrderPage nextPage() {
+        return orderRepo.getOrderPage(cursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import model.Order;
+import org.openjdk.jmh.annotations.*;
+import repository.OffHeapOrderRepo;
+import repository.OrderRepo;
+import repository.ProductRepo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained per order and the length of a full collection while the repository is live.
+ * The score is the fill time; the interesting numbers are the secondary results
+ * {@code heapBytesPerOrder} and {@code fullGcMillis}. Heap numbers include the materialized
+ * input list, which is identical for every repository and only held while filling.
+ * Aux counters are summed over iterations, so keep a single measurement iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+@State(Scope.Benchmark)
+public class OrderStoreFootprintBenchmark {
+
+    @Param({"map", "concurrent", "offHeap"})
+    public String repo;
+
+    @Param({"1000000"})
+    public int orderCount;
+
+    private ProductRepo productRepo;
+    private OrderRepo orderRepo;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerOrder;
+        public long fullGcMillis;
+    }
+
+    @Setup(Level.Trial)
+    public void createProducts() {
+        productRepo = BenchmarkData.productRepo(1_000);
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropRepository() {
+        orderRepo = null;
+    }
+
+    @Benchmark
+    public OrderRepo fill(Footprint footprint) {
+        long heapBefore = usedHeapAfterGc();
+
+        orderRepo = "offHeap".equals(repo) ? new OffHeapOrderRepo(productRepo) : BenchmarkData.orderRepo(repo);
+        List<Order> orders = BenchmarkData.orders(orderCount, 3, productRepo);
+        for (Order order : orders) {
+            orderRepo.addOrder(order);
+        }
+        orders = null;
+
+        long gcMillisBefore = totalGcMillis();
+        long heapAfter = usedHeapAfterGc();
+        footprint.fullGcMillis = totalGcMillis() - gcMillisBefore;
+        footprint.heapBytesPerOrder = (heapAfter - heapBefore) / orderCount;
+        return orderRepo;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += gc.getCollectionTime();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import output.AsyncOutputSink;
+import output.NullOutputSink;
+import output.OutputSink;
+import repository.ConcurrentOrderRepo;
+import repository.StringIdGeneratorRepo;
+import service.ParallelCommandReplayer;
+import service.ShopService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential versus sharded replay of the same transactions file.
+ * Output goes either to the {@code null} sink or through an {@code async} sink into a discarding stream,
+ * so the numbers measure replay and the hand-off to the writer thread, not the terminal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplayBenchmark {
+
+    @Param({"10000", "100000"})
+    public int orderNames;
+
+    @Param({"1", "5"})
+    public int basketSize;
+
+    @Param({"4"})
+    public int shards;
+
+    @Param({"null", "async"})
+    public String sink;
+
+    private Path commandFile;
+    private ShopService shopService;
+    private OutputSink output;
+
+    @Setup(Level.Trial)
+    public void writeCommandFile() throws IOException {
+        commandFile = BenchmarkData.commandFile(orderNames, basketSize, 1_000);
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        output = "async".equals(sink) ? new AsyncOutputSink(discard, discard, 8192, 1024) : NullOutputSink.INSTANCE;
+    }
+
+    @Setup(Level.Invocation)
+    public void newShopService() {
+        shopService = new ShopService(BenchmarkData.productRepo(1_000), new ConcurrentOrderRepo(), new StringIdGeneratorRepo());
+        shopService.setOutput(output);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCommandFile() throws IOException {
+        if (output instanceof AsyncOutputSink async) {
+            async.close();
+        }
+        Files.deleteIfExists(commandFile);
+    }
+
+    @Benchmark
+    public ShopService sequential() throws IOException {
+        shopService.processCommandsFromFile(commandFile);
+        return shopService;
+    }
+
+    @Benchmark
+    public ShopService parallel() throws IOException {
+        new ParallelCommandReplayer(shopService, shards).processCommandsFromFile(commandFile);
+        return shopService;
+    }
+}
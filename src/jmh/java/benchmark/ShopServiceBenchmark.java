@@ -0,0 +1,99 @@
+package benchmark;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.openjdk.jmh.annotations.*;
+import repository.OrderRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShopService and repository hot paths on a pre-filled repository of {@code orderCount} orders.
+ * The repository is rebuilt for every iteration so addOrder does not grow it without bound.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShopServiceBenchmark {
+
+    private static final int PRODUCT_COUNT = 10_000;
+
+    @Param({"map", "list", "concurrent"})
+    public String repo;
+
+    @Param({"1000", "100000"})
+    public int orderCount;
+
+    @Param({"1", "5"})
+    public int basketSize;
+
+    private ProductRepo productRepo;
+    private OrderRepo orderRepo;
+    private ShopService shopService;
+    private List<Order> orders;
+    private List<String> basket;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generateData() {
+        productRepo = BenchmarkData.productRepo(PRODUCT_COUNT);
+        orders = BenchmarkData.orders(orderCount, basketSize, productRepo);
+        basket = BenchmarkData.productIds(basketSize, PRODUCT_COUNT);
+    }
+
+    @Setup(Level.Iteration)
+    public void fillRepository() {
+        orderRepo = BenchmarkData.orderRepo(repo);
+        for (Order order : orders) {
+            orderRepo.addOrder(order);
+        }
+        shopService = new ShopService(productRepo, orderRepo, new StringIdGeneratorRepo());
+        next = 0;
+    }
+
+    private String nextOrderId() {
+        next = next + 1 == orderCount ? 0 : next + 1;
+        return String.valueOf(next);
+    }
+
+    @Benchmark
+    public Order addOrder() {
+        return shopService.addOrder(basket);
+    }
+
+    @Benchmark
+    public Order getOrderById() {
+        return orderRepo.getOrderById(nextOrderId());
+    }
+
+    @Benchmark
+    public Order updateOrder() {
+        String id = nextOrderId();
+        return shopService.updateOrder(id, orderRepo.getOrderById(id).orderStatus());
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByOrderStatus() {
+        return shopService.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY);
+    }
+
+    @Benchmark
+    public Map<OrderStatus, Order> getOldestOrderPerStatus() {
+        return shopService.getOldestOrderPerStatus();
+    }
+
+    @Benchmark
+    public Optional<List<Product>> getProductsByIds() {
+        return productRepo.getProductsByIds(basket);
+    }
+}
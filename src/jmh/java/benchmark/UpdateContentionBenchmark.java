@@ -0,0 +1,68 @@
+package benchmark;
+
+import enums.OrderStatus;
+import model.Order;
+import org.openjdk.jmh.annotations.*;
+import repository.ConcurrentOrderRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ShopService#updateOrder(String, OrderStatus)}, an optimistic read and compare-and-set loop,
+ * as more threads update the same {@code orderCount} orders. With one order every update races every other one.
+ * Orders go IN_DELIVERY once and are then set to IN_DELIVERY again, which every status allows, so no update is rejected.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateContentionBenchmark {
+
+    @Param({"1", "1024"})
+    public int orderCount;
+
+    private ShopService shopService;
+    private String[] orderIds;
+
+    @Setup(Level.Trial)
+    public void placeOrders() {
+        shopService = new ShopService(BenchmarkData.productRepo(1_000), new ConcurrentOrderRepo(), new StringIdGeneratorRepo());
+        List<Order> orders = shopService.addOrders(Collections.nCopies(orderCount, List.of("1")));
+        orderIds = orders.stream().map(Order::id).toArray(String[]::new);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Order threads1() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Order threads2() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Order threads4() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Order threads8() {
+        return update();
+    }
+
+    private Order update() {
+        return shopService.updateOrder(orderIds[ThreadLocalRandom.current().nextInt(orderIds.length)], OrderStatus.IN_DELIVERY);
+    }
+}
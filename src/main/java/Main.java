@@ -1,6 +1,7 @@
 import enums.OrderStatus;
 import model.Order;
 import model.Product;
+import output.AsyncOutputSink;
 import repository.*;
 import service.ShopService;
 
@@ -36,8 +37,9 @@ public class Main {
         shopService.updateOrder(order3.id(), OrderStatus.COMPLETED);
         shopService.updateOrder(order4.id(), OrderStatus.COMPLETED);
 
-        // Read from file
-        try {
+        // Read from file, printing on a background thread so the replay does not wait for the console
+        try (AsyncOutputSink output = new AsyncOutputSink()) {
+            shopService.setOutput(output);
             Path filePath = Path.of("src/main/resources/transactions.txt");
             shopService.processCommandsFromFile(filePath);
         } catch (Exception e) {
@@ -1,7 +1,9 @@
 package enums;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public enum Commands {
@@ -19,18 +21,48 @@ public enum Commands {
         return value;
     }
 
-    private static final Set<String> VALID_VALUES = Arrays.stream(Commands.values())
-            .map(Commands::getValue)
-            .collect(Collectors.toSet());
+    private static final Map<String, Commands> BY_VALUE = Arrays.stream(Commands.values())
+            .collect(Collectors.toUnmodifiableMap(Commands::getValue, Function.identity()));
+
+    private static final Set<String> VALID_VALUES = BY_VALUE.keySet();
+
+    // fromChars runs once per parsed line; values() would clone the array on each of those calls
+    private static final Commands[] COMMANDS = Commands.values();
 
     public static boolean isValid(String command) {
         return VALID_VALUES.contains(command);
     }
 
     public static Commands fromString(String command) {
-        return Arrays.stream(Commands.values())
-                .filter(c -> c.value.equals(command))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Unknown command: " + command));
+        Commands result = BY_VALUE.get(command);
+        if (result == null) {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the command spelled by {@code chars[start, end)} without allocating.
+     * Returns null if no command matches.
+     */
+    public static Commands fromChars(char[] chars, int start, int end) {
+        for (Commands command : COMMANDS) {
+            if (command.matches(chars, start, end)) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(char[] chars, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,36 @@
+package enums;
+
+/**
+ * Operations measured by {@link metrics.ShopMetrics}.
+ */
+public enum Operation {
+    ADD_ORDER("add_order"),
+    ADD_ORDERS("add_orders"),
+    UPDATE_ORDER("update_order"),
+    COMPARE_AND_UPDATE_ORDER("compare_and_update_order"),
+    GET_ORDERS("get_orders"),
+    GET_ORDERS_BY_STATUS("get_orders_by_status"),
+    GET_OLDEST_ORDER_PER_STATUS("get_oldest_order_per_status"),
+    GET_ORDER_PAGE("get_order_page"),
+    PROCESS_COMMAND_LINE("process_command_line"),
+    PRODUCT_LOOKUP("product_lookup"),
+    REPO_GET_ORDERS("repo_get_orders"),
+    REPO_GET_ORDER_BY_ID("repo_get_order_by_id"),
+    REPO_ADD_ORDER("repo_add_order"),
+    REPO_ADD_ORDERS("repo_add_orders"),
+    REPO_REMOVE_ORDER("repo_remove_order"),
+    REPO_UPDATE_ORDER("repo_update_order"),
+    REPO_GET_ORDERS_BY_STATUS("repo_get_orders_by_status"),
+    REPO_GET_OLDEST_ORDER_BY_STATUS("repo_get_oldest_order_by_status"),
+    REPO_GET_ORDER_PAGE("repo_get_order_page");
+
+    private final String metricName;
+
+    Operation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
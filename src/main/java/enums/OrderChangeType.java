@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * Kind of mutation carried by a {@link model.OrderChangeEvent}.
+ */
+public enum OrderChangeType {
+    ADDED,
+    UPDATED,
+    REMOVED
+}
@@ -13,11 +13,81 @@ public enum OrderStatus {
             .map(Enum::name)
             .collect(Collectors.toSet());
 
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    // bit n of entry m is set if status m may change to status n; setting the current status again is always allowed
+    private static final int[] ALLOWED_TRANSITIONS = new int[STATUSES.length];
+
+    // the only status whose name starts with a given ASCII char, so parsing needs one table lookup and one compare
+    private static final OrderStatus[] BY_FIRST_CHAR = new OrderStatus[128];
+
+    static {
+        allow(PROCESSING, IN_DELIVERY);
+        allow(PROCESSING, COMPLETED);
+        allow(IN_DELIVERY, COMPLETED);
+        for (OrderStatus status : STATUSES) {
+            allow(status, status);
+            char first = status.name().charAt(0);
+            if (BY_FIRST_CHAR[first] != null) {
+                throw new IllegalStateException(status + " and " + BY_FIRST_CHAR[first] + " start with the same char, extend the parser table");
+            }
+            BY_FIRST_CHAR[first] = status;
+        }
+    }
+
+    private static void allow(OrderStatus from, OrderStatus to) {
+        ALLOWED_TRANSITIONS[from.ordinal()] |= 1 << to.ordinal();
+    }
+
     public static void print() {
         System.out.println(VALID_VALUES);
     }
 
     public static boolean isValid(String status) {
-        return VALID_VALUES.contains(status);
+        return fromName(status) != null;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return (ALLOWED_TRANSITIONS[ordinal()] & (1 << next.ordinal())) != 0;
+    }
+
+    /**
+     * Like {@link #valueOf(String)}, but returns null instead of throwing if no status matches.
+     */
+    public static OrderStatus fromName(String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        OrderStatus candidate = candidate(name.charAt(0));
+        return candidate != null && candidate.name().equals(name) ? candidate : null;
+    }
+
+    /**
+     * Resolves the status spelled by {@code chars[start, end)} without allocating.
+     * Returns null if no status matches.
+     */
+    public static OrderStatus fromChars(char[] chars, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        OrderStatus candidate = candidate(chars[start]);
+        return candidate != null && candidate.matches(chars, start, end) ? candidate : null;
+    }
+
+    private static OrderStatus candidate(char first) {
+        return first < BY_FIRST_CHAR.length ? BY_FIRST_CHAR[first] : null;
+    }
+
+    private boolean matches(char[] chars, int start, int end) {
+        String name = name();
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
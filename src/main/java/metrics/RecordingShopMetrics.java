@@ -0,0 +1,81 @@
+package metrics;
+
+import enums.Operation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ShopMetrics} that keeps a call counter, an error counter and a {@link LatencyHistogram} per operation.
+ * All of them are allocated up front, so recording never allocates and never locks.
+ */
+public class RecordingShopMetrics implements ShopMetrics {
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final double[] EXPORTED_PERCENTILES = {50, 99, 99.9};
+    private static final String[] EXPORTED_QUANTILES = {"0.5", "0.99", "0.999"};
+
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] errors = new LongAdder[OPERATIONS.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+
+    public RecordingShopMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i] = new LongAdder();
+            errors[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public long startNanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void record(Operation operation, long startNanos, boolean success) {
+        int i = operation.ordinal();
+        calls[i].increment();
+        if (!success) {
+            errors[i].increment();
+        }
+        latencies[i].record(System.nanoTime() - startNanos);
+    }
+
+    public long getCallCount(Operation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    public long getErrorCount(Operation operation) {
+        return errors[operation.ordinal()].sum();
+    }
+
+    public LatencyHistogram.Snapshot getLatencies(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    // Operations that never ran are left out to keep the scrape short.
+    @Override
+    public String exportText() {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE shop_operation_calls_total counter\n");
+        text.append("# TYPE shop_operation_errors_total counter\n");
+        text.append("# TYPE shop_operation_latency_nanos summary\n");
+        text.append("# TYPE shop_operation_latency_nanos_max gauge\n");
+        for (Operation operation : OPERATIONS) {
+            long callCount = getCallCount(operation);
+            if (callCount == 0) {
+                continue;
+            }
+            String label = "{operation=\"" + operation.metricName() + "\"";
+            text.append("shop_operation_calls_total").append(label).append("} ").append(callCount).append('\n');
+            text.append("shop_operation_errors_total").append(label).append("} ").append(getErrorCount(operation)).append('\n');
+            LatencyHistogram.Snapshot snapshot = getLatencies(operation);
+            for (int p = 0; p < EXPORTED_PERCENTILES.length; p++) {
+                text.append("shop_operation_latency_nanos").append(label).append(",quantile=\"").append(EXPORTED_QUANTILES[p]).append("\"} ")
+                        .append(snapshot.valueAtPercentile(EXPORTED_PERCENTILES[p])).append('\n');
+            }
+            text.append("shop_operation_latency_nanos_max").append(label).append("} ").append(snapshot.max()).append('\n');
+        }
+        return text.toString();
+    }
+}
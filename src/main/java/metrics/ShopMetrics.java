@@ -0,0 +1,29 @@
+package metrics;
+
+import enums.Operation;
+
+/**
+ * Records how often each {@link Operation} runs, how often it fails and how long it takes.
+ * Callers take a start time and report the outcome without allocating:
+ * <pre>{@code
+ * long start = metrics.startNanos();
+ * boolean success = false;
+ * try {
+ *     ...
+ *     success = true;
+ * } finally {
+ *     metrics.record(Operation.ADD_ORDER, start, success);
+ * }
+ * }</pre>
+ */
+public interface ShopMetrics {
+
+    long startNanos();
+
+    void record(Operation operation, long startNanos, boolean success);
+
+    /**
+     * Current values in Prometheus text format.
+     */
+    String exportText();
+}
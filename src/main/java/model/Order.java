@@ -4,12 +4,31 @@ import enums.OrderStatus;
 import lombok.With;
 
 import java.time.ZonedDateTime;
+import java.util.Comparator;
 import java.util.List;
 
+/**
+ * @param version starts at 0 and goes up by one with every status update, see
+ *                {@link repository.OrderRepo#updateOrder(String, long, OrderStatus)}
+ */
 public record Order(
         @With String id,
         @With List<Product> products,
         @With OrderStatus orderStatus,
-        ZonedDateTime orderedAt
+        ZonedDateTime orderedAt,
+        @With long version
 ) {
+    // oldest first, ties broken by id so two orders placed at the same instant stay distinct
+    public static final Comparator<Order> BY_ORDERED_AT = Comparator.comparing(Order::orderedAt).thenComparing(Order::id);
+
+    public Order(String id, List<Product> products, OrderStatus orderStatus, ZonedDateTime orderedAt) {
+        this(id, products, orderStatus, orderedAt, 0);
+    }
+
+    /**
+     * The order after a status update: the new status and the next version.
+     */
+    public Order nextVersion(OrderStatus orderStatus) {
+        return new Order(id, products, orderStatus, orderedAt, version + 1);
+    }
 }
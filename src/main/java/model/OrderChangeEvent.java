@@ -0,0 +1,14 @@
+package model;
+
+import enums.OrderChangeType;
+
+/**
+ * One mutation published to a {@link repository.OrderChangeFeed}. {@code order} is the order after the change,
+ * or the last stored order for {@link OrderChangeType#REMOVED}. Sequences are gap-free per feed.
+ */
+public record OrderChangeEvent(
+        long sequence,
+        OrderChangeType type,
+        Order order
+) {
+}
@@ -0,0 +1,16 @@
+package model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated order listing, ordered by {@link Order#BY_ORDERED_AT}.
+ * {@code nextCursor} is opaque and null on the last page.
+ */
+public record OrderPage(
+        List<Order> orders,
+        String nextCursor
+) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
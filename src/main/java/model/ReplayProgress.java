@@ -0,0 +1,20 @@
+package model;
+
+public record ReplayProgress(
+        long linesProcessed,
+        long bytesRead,
+        long totalBytes,
+        long elapsedNanos
+) {
+    public double linesPerSecond() {
+        return perSecond(linesProcessed);
+    }
+
+    public double bytesPerSecond() {
+        return perSecond(bytesRead);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,147 @@
+package output;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands lines to a background writer thread through a bounded ring buffer, so callers never wait for the terminal.
+ * The writer drains up to {@code batchSize} lines at a time and writes each batch with a single print and flush.
+ * When the buffer is full callers block until the writer catches up, so no line is ever dropped.
+ * Lines keep their order across both streams. {@link #close()} writes everything still buffered.
+ */
+public class AsyncOutputSink implements OutputSink, AutoCloseable {
+
+    private static final Line CLOSE = new Line(null, false);
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final int batchSize;
+    private final BlockingQueue<Line> buffer;
+    private final Thread writer;
+    private final Object progress = new Object();
+    private final AtomicLong accepted = new AtomicLong();
+    // guarded by progress
+    private long written;
+    private volatile boolean closed;
+
+    public AsyncOutputSink() {
+        this(System.out, System.err, 8192, 1024);
+    }
+
+    public AsyncOutputSink(PrintStream out, PrintStream err, int capacity, int batchSize) {
+        this.out = out;
+        this.err = err;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeLoop, "async-output-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void println(String line) {
+        enqueue(new Line(line, false));
+    }
+
+    @Override
+    public void printError(String line) {
+        enqueue(new Line(line, true));
+    }
+
+    @Override
+    public void flush() {
+        long target = accepted.get();
+        synchronized (progress) {
+            while (written < target && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            buffer.put(CLOSE);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Line line) {
+        if (closed) {
+            throw new IllegalStateException("Output sink is closed");
+        }
+        accepted.incrementAndGet();
+        try {
+            buffer.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for output buffer space", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<Line> batch = new ArrayList<>(batchSize);
+        StringBuilder outText = new StringBuilder();
+        StringBuilder errText = new StringBuilder();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.drainTo(batch, batchSize - 1);
+
+            int lines = 0;
+            for (Line line : batch) {
+                if (line == CLOSE) {
+                    running = false;
+                    continue;
+                }
+                // switching streams flushes the other one first so interleaved lines keep their order
+                if (line.error()) {
+                    write(out, outText);
+                    errText.append(line.text()).append(System.lineSeparator());
+                } else {
+                    write(err, errText);
+                    outText.append(line.text()).append(System.lineSeparator());
+                }
+                lines++;
+            }
+            write(out, outText);
+            write(err, errText);
+            batch.clear();
+
+            synchronized (progress) {
+                written += lines;
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private static void write(PrintStream stream, StringBuilder text) {
+        if (!text.isEmpty()) {
+            stream.print(text);
+            stream.flush();
+            text.setLength(0);
+        }
+    }
+
+    private record Line(String text, boolean error) {
+    }
+}
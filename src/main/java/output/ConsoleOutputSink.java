@@ -0,0 +1,28 @@
+package output;
+
+/**
+ * Writes straight to {@code System.out} and {@code System.err}, looked up on every call so redirected streams are honoured.
+ */
+public final class ConsoleOutputSink implements OutputSink {
+
+    public static final ConsoleOutputSink INSTANCE = new ConsoleOutputSink();
+
+    private ConsoleOutputSink() {
+    }
+
+    @Override
+    public void println(String line) {
+        System.out.println(line);
+    }
+
+    @Override
+    public void printError(String line) {
+        System.err.println(line);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+        System.err.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package output;
+
+/**
+ * Discards everything, for benchmarks and bulk imports.
+ */
+public final class NullOutputSink implements OutputSink {
+
+    public static final NullOutputSink INSTANCE = new NullOutputSink();
+
+    private NullOutputSink() {
+    }
+
+    @Override
+    public void println(String line) {
+    }
+
+    @Override
+    public void printError(String line) {
+    }
+}
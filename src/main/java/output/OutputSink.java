@@ -0,0 +1,17 @@
+package output;
+
+/**
+ * Destination for the messages {@link service.ShopService} prints while placing orders and replaying command files.
+ */
+public interface OutputSink {
+
+    void println(String line);
+
+    void printError(String line);
+
+    /**
+     * Returns once every line accepted so far has been written.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,191 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.OrderPage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Retention tier in front of a hot {@link OrderRepo}. Orders that have been COMPLETED for longer than the retention
+ * age are moved into an {@link OrderArchive} by {@link #runRetention()}, which callers schedule as they see fit.
+ * <p>
+ * {@link #getOrderById(String)} falls through to the archive; everything else, including {@link #getOrders()} and
+ * the status queries, only sees the hot orders. Archived orders are read-only: updating one throws an
+ * {@link IllegalArgumentException}, removing one is a no-op.
+ * <p>
+ * Completion times are only kept in memory. Orders that are already COMPLETED in the hot repository when this tier
+ * is created start their retention at creation time, so a restart can delay archiving but never archives early.
+ */
+public class ArchivingOrderRepo implements OrderRepo {
+
+    private static final int ORDERS_PER_ARCHIVE_BLOCK = 1024;
+
+    private final OrderRepo hot;
+    private final OrderArchive archive;
+    private final Clock clock;
+    private final Duration retention;
+    // completion time per completed hot order, and the same entries in completion order so retention only looks at the head
+    private final Map<String, Instant> completedAt = new HashMap<>();
+    private final Deque<Completion> completions = new ArrayDeque<>();
+
+    private record Completion(String id, Instant at) {
+    }
+
+    public ArchivingOrderRepo(OrderRepo hot, OrderArchive archive, Clock clock, Duration retention) {
+        this.hot = hot;
+        this.archive = archive;
+        this.clock = clock;
+        this.retention = retention;
+        for (Order order : hot.getOrdersByOrderStatus(OrderStatus.COMPLETED)) {
+            track(order);
+        }
+    }
+
+    /**
+     * Moves every order that has been COMPLETED for longer than the retention age to the archive.
+     * Returns the number of orders moved.
+     */
+    public synchronized int runRetention() {
+        Instant cutoff = clock.instant().minus(retention);
+        List<Order> batch = new ArrayList<>(ORDERS_PER_ARCHIVE_BLOCK);
+        int moved = 0;
+        while (!completions.isEmpty() && completions.peekFirst().at().isBefore(cutoff)) {
+            Completion completion = completions.pollFirst();
+            // stale if the order was completed again later, changed status or was removed since
+            if (!completion.at().equals(completedAt.get(completion.id()))) {
+                continue;
+            }
+            completedAt.remove(completion.id());
+            batch.add(hot.getOrderById(completion.id()));
+            if (batch.size() == ORDERS_PER_ARCHIVE_BLOCK) {
+                moved += moveToArchive(batch);
+            }
+        }
+        return moved + moveToArchive(batch);
+    }
+
+    public OrderArchive getArchive() {
+        return archive;
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        return hot.getOrders();
+    }
+
+    @Override
+    public Stream<Order> streamOrders() {
+        return hot.streamOrders();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        hot.forEachOrder(filter, action);
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        Order order = hot.getOrderById(id);
+        return order != null ? order : archive.getOrderById(id);
+    }
+
+    @Override
+    public synchronized Order addOrder(Order newOrder) {
+        Order added = hot.addOrder(newOrder);
+        track(added);
+        return added;
+    }
+
+    @Override
+    public synchronized List<Order> addOrders(List<Order> newOrders) {
+        List<Order> added = hot.addOrders(newOrders);
+        for (Order order : added) {
+            track(order);
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized Optional<Order> removeOrder(String id) {
+        Optional<Order> removed = hot.removeOrder(id);
+        completedAt.remove(id);
+        return removed;
+    }
+
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        Optional<Order> updated = hot.updateOrder(orderId, orderStatus);
+        if (updated.isEmpty()) {
+            checkNotArchived(orderId);
+        }
+        updated.ifPresent(this::track);
+        return updated;
+    }
+
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        Optional<Order> updated = hot.updateOrder(orderId, expectedVersion, orderStatus);
+        if (updated.isEmpty() && hot.getOrderById(orderId) == null) {
+            checkNotArchived(orderId);
+        }
+        updated.ifPresent(this::track);
+        return updated;
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return hot.getOrdersByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        return hot.getOldestOrderByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        return hot.getOrderPage(cursor, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        return hot.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+    }
+
+    private void checkNotArchived(String orderId) {
+        if (archive.contains(orderId)) {
+            throw new IllegalArgumentException("Order with id: " + orderId + " is archived and read-only.");
+        }
+    }
+
+    private void track(Order order) {
+        if (order.orderStatus() != OrderStatus.COMPLETED) {
+            completedAt.remove(order.id());
+            return;
+        }
+        // completing an already completed order again keeps its original completion time
+        if (!completedAt.containsKey(order.id())) {
+            Instant now = clock.instant();
+            completedAt.put(order.id(), now);
+            completions.addLast(new Completion(order.id(), now));
+        }
+    }
+
+    // The archive syncs a block before the orders leave the hot repo, so a crash in between at worst keeps both copies.
+    private int moveToArchive(List<Order> batch) {
+        int moved = batch.size();
+        archive.append(batch);
+        for (Order order : batch) {
+            hot.removeOrder(order.id());
+        }
+        batch.clear();
+        return moved;
+    }
+}
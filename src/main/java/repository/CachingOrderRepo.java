@@ -0,0 +1,216 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.OrderPage;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Read-through LRU cache of single orders in front of a slow {@link OrderRepo}, such as a disk-backed one.
+ * <p>
+ * {@link #getOrderById(String)} is served from the cache when possible; every write goes to the wrapped repo first
+ * and then replaces or drops the cached entry. COMPLETED orders are not cached, since they are rarely read again,
+ * so the cache holds the orders that are still moving. Listings and status queries always go to the wrapped repo.
+ */
+public class CachingOrderRepo implements OrderRepo {
+
+    private static final int WRITE_STAMP_STRIPES = 256;
+
+    private final OrderRepo orders;
+    private final Map<String, Order> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // one stamp per stripe of ids, bumped on every write to one of them; a load or write only fills the cache if no
+    // other write to the same stripe finished in the meantime, otherwise the entry is dropped, so racing calls can
+    // never leave an outdated order behind while writes to unrelated orders do not get in the way. Guarded by cache.
+    private final long[] writeStamps = new long[WRITE_STAMP_STRIPES];
+
+    public CachingOrderRepo(OrderRepo orders, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1 but was " + capacity);
+        }
+        this.orders = orders;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Order> eldest) {
+                if (size() > capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        long writesBeforeLoad;
+        synchronized (cache) {
+            Order cached = cache.get(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            writesBeforeLoad = writeStamps[stripeOf(id)];
+        }
+        misses.increment();
+        Order order = orders.getOrderById(id);
+        if (order != null && isCacheable(order)) {
+            synchronized (cache) {
+                if (writeStamps[stripeOf(id)] == writesBeforeLoad) {
+                    cache.put(id, order);
+                }
+            }
+        }
+        return order;
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) {
+        long writesBefore = writeStamp(newOrder.id());
+        Order added = orders.addOrder(newOrder);
+        synchronized (cache) {
+            cacheOrEvict(newOrder.id(), added, writesBefore);
+            writeStamps[stripeOf(newOrder.id())]++;
+        }
+        return added;
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) {
+        long[] writesBefore = new long[newOrders.size()];
+        synchronized (cache) {
+            for (int i = 0; i < writesBefore.length; i++) {
+                writesBefore[i] = writeStamps[stripeOf(newOrders.get(i).id())];
+            }
+        }
+        List<Order> added = orders.addOrders(newOrders);
+        synchronized (cache) {
+            for (int i = 0; i < added.size(); i++) {
+                cacheOrEvict(added.get(i).id(), added.get(i), writesBefore[i]);
+            }
+            for (Order order : added) {
+                writeStamps[stripeOf(order.id())]++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public Optional<Order> removeOrder(String id) {
+        Optional<Order> removed = orders.removeOrder(id);
+        synchronized (cache) {
+            cache.remove(id);
+            writeStamps[stripeOf(id)]++;
+        }
+        return removed;
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        long writesBefore = writeStamp(orderId);
+        Optional<Order> updated = orders.updateOrder(orderId, orderStatus);
+        synchronized (cache) {
+            cacheOrEvict(orderId, updated.orElse(null), writesBefore);
+            writeStamps[stripeOf(orderId)]++;
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        long writesBefore = writeStamp(orderId);
+        Optional<Order> updated = orders.updateOrder(orderId, expectedVersion, orderStatus);
+        // a failed compare-and-set means the cached order may be outdated
+        synchronized (cache) {
+            cacheOrEvict(orderId, updated.orElse(null), writesBefore);
+            writeStamps[stripeOf(orderId)]++;
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        return orders.getOrders();
+    }
+
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.streamOrders();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        orders.forEachOrder(filter, action);
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOrdersByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOldestOrderByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        return orders.getOrderPage(cursor, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        return orders.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int getCachedOrderCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private long writeStamp(String id) {
+        synchronized (cache) {
+            return writeStamps[stripeOf(id)];
+        }
+    }
+
+    private void cacheOrEvict(String id, Order order, long writesBefore) {
+        if (order != null && isCacheable(order) && writeStamps[stripeOf(id)] == writesBefore) {
+            cache.put(id, order);
+        } else {
+            cache.remove(id);
+        }
+    }
+
+    private static int stripeOf(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (WRITE_STAMP_STRIPES - 1);
+    }
+
+    private static boolean isCacheable(Order order) {
+        return order.orderStatus() != OrderStatus.COMPLETED;
+    }
+}
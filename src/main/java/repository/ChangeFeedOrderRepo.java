@@ -0,0 +1,109 @@
+package repository;
+
+import enums.OrderChangeType;
+import enums.OrderStatus;
+import model.Order;
+import model.OrderPage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that publishes every successful mutation of the wrapped {@link OrderRepo} to an {@link OrderChangeFeed},
+ * so downstream systems can follow changes instead of polling {@link #getOrders()}.
+ * Events are published after the wrapped repo has applied the change; a failed write publishes nothing.
+ */
+public class ChangeFeedOrderRepo implements OrderRepo {
+
+    private final OrderRepo orders;
+    private final OrderChangeFeed feed;
+
+    public ChangeFeedOrderRepo(OrderRepo orders, OrderChangeFeed feed) {
+        this.orders = orders;
+        this.feed = feed;
+    }
+
+    public OrderChangeFeed getFeed() {
+        return feed;
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) {
+        Order added = orders.addOrder(newOrder);
+        feed.publish(OrderChangeType.ADDED, added);
+        return added;
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) {
+        List<Order> added = orders.addOrders(newOrders);
+        for (Order order : added) {
+            feed.publish(OrderChangeType.ADDED, order);
+        }
+        return added;
+    }
+
+    @Override
+    public Optional<Order> removeOrder(String id) {
+        Optional<Order> removed = orders.removeOrder(id);
+        removed.ifPresent(order -> feed.publish(OrderChangeType.REMOVED, order));
+        return removed;
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        Optional<Order> updated = orders.updateOrder(orderId, orderStatus);
+        updated.ifPresent(order -> feed.publish(OrderChangeType.UPDATED, order));
+        return updated;
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        Optional<Order> updated = orders.updateOrder(orderId, expectedVersion, orderStatus);
+        updated.ifPresent(order -> feed.publish(OrderChangeType.UPDATED, order));
+        return updated;
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        return orders.getOrders();
+    }
+
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.streamOrders();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        orders.forEachOrder(filter, action);
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        return orders.getOrderById(id);
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOrdersByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOldestOrderByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        return orders.getOrderPage(cursor, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        return orders.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+    }
+}
@@ -0,0 +1,153 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.OrderPage;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe {@link OrderRepo} for multi-threaded order intake.
+ * Every mutation is an atomic read-modify-write on a single key of a {@link ConcurrentHashMap},
+ * which only locks the hash bin of that key, so writers on different orders never contend on a global lock.
+ * The per-status index is ordered by {@link Order#BY_ORDERED_AT} and maintained inside that per-key section,
+ * so it never sees two writers for the same order.
+ */
+public class ConcurrentOrderRepo implements OrderRepo {
+    private final ConcurrentMap<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, NavigableSet<Order>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+
+    public ConcurrentOrderRepo() {
+        for (OrderStatus orderStatus : OrderStatus.values()) {
+            ordersByStatus.put(orderStatus, new ConcurrentSkipListSet<>(Order.BY_ORDERED_AT));
+        }
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        return new ArrayList<>(orders.values());
+    }
+
+    // Weakly consistent: safe while other threads write, and sees each order at most once.
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.values().stream();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        for (Order order : orders.values()) {
+            if (filter.test(order)) {
+                action.accept(order);
+            }
+        }
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        return orders.get(id);
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) {
+        orders.compute(newOrder.id(), (key, previousOrder) -> {
+            unindex(previousOrder);
+            index(newOrder);
+            return newOrder;
+        });
+        return newOrder;
+    }
+
+    @Override
+    public Optional<Order> removeOrder(String id) {
+        Order[] removedOrder = new Order[1];
+        orders.computeIfPresent(id, (key, existingOrder) -> {
+            unindex(existingOrder);
+            removedOrder[0] = existingOrder;
+            return null;
+        });
+        return Optional.ofNullable(removedOrder[0]);
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String id, OrderStatus orderStatus) {
+        Order updatedOrder = orders.computeIfPresent(id, (key, existingOrder) -> replace(existingOrder, orderStatus));
+        return Optional.ofNullable(updatedOrder);
+    }
+
+    // The version check runs in the same per-key section as the write, so exactly one of two racing callers wins.
+    @Override
+    public Optional<Order> updateOrder(String id, long expectedVersion, OrderStatus orderStatus) {
+        Order[] updatedOrder = new Order[1];
+        orders.computeIfPresent(id, (key, existingOrder) -> {
+            if (existingOrder.version() != expectedVersion) {
+                return existingOrder;
+            }
+            updatedOrder[0] = replace(existingOrder, orderStatus);
+            return updatedOrder[0];
+        });
+        return Optional.ofNullable(updatedOrder[0]);
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return new ArrayList<>(ordersByStatus.get(orderStatus));
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        Iterator<Order> oldestFirst = ordersByStatus.get(orderStatus).iterator();
+        return oldestFirst.hasNext() ? Optional.of(oldestFirst.next()) : Optional.empty();
+    }
+
+    // Weakly consistent like the index itself: an order that changes status while a caller pages can show up twice or not at all.
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        Order after = OrderPages.positionOf(cursor);
+        List<Iterator<Order>> sources = new ArrayList<>(ordersByStatus.size());
+        for (NavigableSet<Order> orders : ordersByStatus.values()) {
+            sources.add(tail(orders, after));
+        }
+        return OrderPages.merge(sources, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        return OrderPages.merge(List.of(tail(ordersByStatus.get(orderStatus), OrderPages.positionOf(cursor))), limit);
+    }
+
+    private static Iterator<Order> tail(NavigableSet<Order> orders, Order after) {
+        return after == null ? orders.iterator() : orders.tailSet(after, false).iterator();
+    }
+
+    private Order replace(Order existingOrder, OrderStatus orderStatus) {
+        Order order = existingOrder.nextVersion(orderStatus);
+        unindex(existingOrder);
+        index(order);
+        return order;
+    }
+
+    private void index(Order order) {
+        ordersByStatus.get(order.orderStatus()).add(order);
+    }
+
+    private void unindex(Order order) {
+        if (order != null) {
+            ordersByStatus.get(order.orderStatus()).remove(order);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.OrderPage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link OrderRepo} that survives restarts. Every mutation is appended to a binary write-ahead log before it is
+ * applied to the in-memory repository it wraps; reads go straight to that repository.
+ * <p>
+ * Group commit: the log is only fsynced once {@code syncBatchSize} records are pending, so with a batch size of N
+ * up to N-1 acknowledged mutations can be lost in a crash. A batch size of 1 syncs every mutation. With
+ * {@code maxSyncDelayMillis} (see {@link #open}) a background timer also syncs a partial batch, which bounds how long an acknowledged
+ * mutation stays volatile; without it a partial batch is only synced by the next full batch, {@link #sync()},
+ * a snapshot or {@link #close()}.
+ * <p>
+ * Every {@code snapshotEveryRecords} mutations the whole repository is written to a compact snapshot and a new log
+ * generation is started, so recovery loads the latest snapshot and only replays the log tail. Snapshot and log both
+ * carry their generation; a log older than the snapshot is already contained in it and is discarded instead of being
+ * replayed twice. A record that runs past the end of the log, or a final record with a bad checksum, is a torn write
+ * from a crash and is cut off; damage anywhere else fails recovery instead of silently dropping the rest of the log.
+ */
+public class DurableOrderRepo implements OrderRepo, Closeable {
+
+    public static final String SNAPSHOT_FILE = "orders.snapshot";
+    public static final String LOG_FILE = "orders.wal";
+
+    // changed whenever the order encoding changes, so an old snapshot is rejected instead of misread
+    private static final int SNAPSHOT_MAGIC = 0x4F524433;
+    private static final int LOG_MAGIC = 0x4F574C31;
+    // log header layout: int magic, long generation
+    private static final int LOG_HEADER_BYTES = 12;
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+    // record layout: int payload length, int CRC32 of payload, payload (type byte + data)
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final OrderRepo orders;
+    private final int syncBatchSize;
+    private final long snapshotEveryRecords;
+    private final FileChannel log;
+    private final long maxSyncDelayMillis;
+    private ScheduledExecutorService syncTimer;
+
+    private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+    private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocate(IO_BUFFER_SIZE);
+    private int unsyncedRecords;
+    private long recordsSinceSnapshot;
+    private long generation;
+
+    public DurableOrderRepo(Path directory) throws IOException {
+        this(directory, new ConcurrentOrderRepo(), 1, 100_000);
+    }
+
+    /**
+     * @param orders               empty in-memory repository that holds the recovered and live state
+     * @param syncBatchSize        number of log records per fsync, at least 1
+     * @param snapshotEveryRecords log records between automatic snapshots, 0 to only snapshot on demand
+     */
+    public DurableOrderRepo(Path directory, OrderRepo orders, int syncBatchSize, long snapshotEveryRecords) throws IOException {
+        this(directory, orders, syncBatchSize, snapshotEveryRecords, 0);
+    }
+
+    private DurableOrderRepo(Path directory, OrderRepo orders, int syncBatchSize, long snapshotEveryRecords, long maxSyncDelayMillis) throws IOException {
+        if (syncBatchSize < 1) {
+            throw new IllegalArgumentException("syncBatchSize must be at least 1 but was " + syncBatchSize);
+        }
+        if (maxSyncDelayMillis < 0) {
+            throw new IllegalArgumentException("maxSyncDelayMillis must not be negative but was " + maxSyncDelayMillis);
+        }
+        this.directory = directory;
+        this.orders = orders;
+        this.syncBatchSize = syncBatchSize;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.maxSyncDelayMillis = maxSyncDelayMillis;
+
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            loadSnapshot(snapshot);
+        }
+        log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        openLog();
+    }
+
+    /**
+     * Like the constructor, plus a background timer that syncs a partial batch at most {@code maxSyncDelayMillis}
+     * after it was logged. The timer starts once the repository is fully constructed.
+     *
+     * @param maxSyncDelayMillis longest time a partial batch waits for its fsync, 0 to only sync full batches
+     */
+    public static DurableOrderRepo open(Path directory, OrderRepo orders, int syncBatchSize, long snapshotEveryRecords, long maxSyncDelayMillis) throws IOException {
+        DurableOrderRepo repo = new DurableOrderRepo(directory, orders, syncBatchSize, snapshotEveryRecords, maxSyncDelayMillis);
+        repo.startSyncTimer();
+        return repo;
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        return orders.getOrders();
+    }
+
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.streamOrders();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        orders.forEachOrder(filter, action);
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        return orders.getOrderById(id);
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOrdersByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        return orders.getOldestOrderByOrderStatus(orderStatus);
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        return orders.getOrderPage(cursor, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        return orders.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+    }
+
+    @Override
+    public synchronized Order addOrder(Order newOrder) {
+        try {
+            beginRecord(ADD);
+            OrderBinaryCodec.writeOrder(payload, newOrder);
+            appendRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log order " + newOrder.id(), e);
+        }
+        orders.addOrder(newOrder);
+        afterMutations(1);
+        return newOrder;
+    }
+
+    // Logs the whole batch first and syncs once, then applies it.
+    @Override
+    public synchronized List<Order> addOrders(List<Order> newOrders) {
+        try {
+            for (Order newOrder : newOrders) {
+                beginRecord(ADD);
+                OrderBinaryCodec.writeOrder(payload, newOrder);
+                appendRecord(false);
+            }
+            syncIfBatchFull(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log batch of " + newOrders.size() + " orders", e);
+        }
+        orders.addOrders(newOrders);
+        afterMutations(newOrders.size());
+        return newOrders;
+    }
+
+    @Override
+    public synchronized Optional<Order> removeOrder(String id) {
+        if (orders.getOrderById(id) == null) {
+            return Optional.empty();
+        }
+        try {
+            beginRecord(REMOVE);
+            payload.writeUTF(id);
+            appendRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log removal of order " + id, e);
+        }
+        Optional<Order> removed = orders.removeOrder(id);
+        afterMutations(1);
+        return removed;
+    }
+
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        if (orders.getOrderById(orderId) == null) {
+            return Optional.empty();
+        }
+        try {
+            beginRecord(UPDATE);
+            payload.writeUTF(orderId);
+            OrderBinaryCodec.writeStatus(payload, orderStatus);
+            appendRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log update of order " + orderId, e);
+        }
+        Optional<Order> updatedOrder = orders.updateOrder(orderId, orderStatus);
+        afterMutations(1);
+        return updatedOrder;
+    }
+
+    // Only successful updates are logged; replaying them as plain updates reproduces the same versions.
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        Order existingOrder = orders.getOrderById(orderId);
+        if (existingOrder == null || existingOrder.version() != expectedVersion) {
+            return Optional.empty();
+        }
+        return updateOrder(orderId, orderStatus);
+    }
+
+    /**
+     * Writes and fsyncs every pending log record.
+     */
+    public synchronized void sync() {
+        try {
+            writePending();
+            log.force(false);
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync order log", e);
+        }
+    }
+
+    /**
+     * Writes the whole repository to a new snapshot and starts an empty log of the next generation.
+     * The snapshot is written to a temporary file and moved into place, so a crash leaves either the old or the new one.
+     */
+    public synchronized void snapshot() {
+        sync();
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            List<Order> allOrders = orders.getOrders();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(generation + 1);
+                out.writeInt(allOrders.size());
+                for (Order order : allOrders) {
+                    OrderBinaryCodec.writeOrder(out, order);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // a crash right here leaves a log of the previous generation, which recovery discards
+            generation++;
+            resetLog();
+            recordsSinceSnapshot = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write order snapshot", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+        }
+        sync();
+        log.close();
+    }
+
+    private void beginRecord(byte type) throws IOException {
+        payloadBytes.reset();
+        payload.writeByte(type);
+    }
+
+    private void appendRecord() throws IOException {
+        appendRecord(true);
+    }
+
+    private void appendRecord(boolean syncIfBatchFull) throws IOException {
+        byte[] bytes = payloadBytes.toByteArray();
+        crc.reset();
+        crc.update(bytes);
+        int recordSize = RECORD_HEADER_BYTES + bytes.length;
+        if (pending.remaining() < recordSize) {
+            writePending();
+            if (pending.capacity() < recordSize) {
+                pending = ByteBuffer.allocate(recordSize);
+            }
+        }
+        pending.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        unsyncedRecords++;
+        syncIfBatchFull(syncIfBatchFull);
+    }
+
+    private void syncIfBatchFull(boolean enabled) throws IOException {
+        if (enabled && unsyncedRecords >= syncBatchSize) {
+            writePending();
+            log.force(false);
+            unsyncedRecords = 0;
+        }
+    }
+
+    private void writePending() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            log.write(pending);
+        }
+        pending.clear();
+    }
+
+    private synchronized void startSyncTimer() {
+        if (maxSyncDelayMillis == 0 || syncBatchSize == 1) {
+            return;
+        }
+        syncTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "durable-order-repo-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncTimer.scheduleWithFixedDelay(this::syncIfPending, maxSyncDelayMillis, maxSyncDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void syncIfPending() {
+        if (unsyncedRecords > 0 && log.isOpen()) {
+            sync();
+        }
+    }
+
+    private void afterMutations(int records) {
+        recordsSinceSnapshot += records;
+        if (isSnapshotDue()) {
+            snapshot();
+        }
+    }
+
+    private boolean isSnapshotDue() {
+        return snapshotEveryRecords > 0 && recordsSinceSnapshot >= snapshotEveryRecords;
+    }
+
+    private void loadSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), IO_BUFFER_SIZE))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not an order snapshot: " + snapshot);
+            }
+            generation = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                orders.addOrder(OrderBinaryCodec.readOrder(in));
+            }
+        }
+    }
+
+    private void openLog() throws IOException {
+        long size = log.size();
+        if (size >= LOG_HEADER_BYTES) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0)), IO_BUFFER_SIZE));
+            if (in.readInt() != LOG_MAGIC) {
+                throw new IOException("Not an order log: " + directory.resolve(LOG_FILE));
+            }
+            long logGeneration = in.readLong();
+            if (logGeneration > generation) {
+                throw new IOException("Order log generation " + logGeneration + " is newer than snapshot generation " + generation);
+            }
+            if (logGeneration == generation) {
+                replayLog(in, size);
+                return;
+            }
+        }
+        // no log yet, a header torn before any record was written, or a log the snapshot already contains
+        resetLog();
+    }
+
+    private void resetLog() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).putInt(LOG_MAGIC).putLong(generation).flip();
+        log.truncate(0);
+        while (header.hasRemaining()) {
+            log.write(header, header.position());
+        }
+        log.force(true);
+        log.position(LOG_HEADER_BYTES);
+    }
+
+    private void replayLog(DataInputStream in, long size) throws IOException {
+        long validEnd = LOG_HEADER_BYTES;
+        while (size - validEnd >= RECORD_HEADER_BYTES) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 1 || length > MAX_RECORD_BYTES) {
+                throw new IOException("Corrupt order log record length " + length + " at offset " + validEnd);
+            }
+            long recordEnd = validEnd + RECORD_HEADER_BYTES + length;
+            if (recordEnd > size) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            crc.reset();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) {
+                if (recordEnd == size) {
+                    break;
+                }
+                throw new IOException("Corrupt order log record checksum at offset " + validEnd);
+            }
+            try {
+                apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+            } catch (EOFException e) {
+                throw new IOException("Truncated order log record payload at offset " + validEnd, e);
+            }
+            validEnd = recordEnd;
+            recordsSinceSnapshot++;
+        }
+        // anything after validEnd is a record torn by a crash in the middle of appending it
+        log.truncate(validEnd);
+        log.position(validEnd);
+    }
+
+    private void apply(DataInputStream record) throws IOException {
+        byte type = record.readByte();
+        switch (type) {
+            case ADD -> orders.addOrder(OrderBinaryCodec.readOrder(record));
+            case UPDATE -> orders.updateOrder(record.readUTF(), OrderBinaryCodec.readStatus(record));
+            case REMOVE -> orders.removeOrder(record.readUTF());
+            default -> throw new IOException("Unknown log record type: " + type);
+        }
+    }
+}
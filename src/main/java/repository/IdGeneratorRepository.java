@@ -1,5 +1,16 @@
 package repository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface IdGeneratorRepository {
     String generateId();
+
+    default List<String> generateIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(generateId());
+        }
+        return ids;
+    }
 }
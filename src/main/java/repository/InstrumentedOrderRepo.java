@@ -0,0 +1,181 @@
+package repository;
+
+import enums.Operation;
+import enums.OrderStatus;
+import metrics.ShopMetrics;
+import model.Order;
+import model.OrderPage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that reports every call to the wrapped {@link OrderRepo} to {@link ShopMetrics}.
+ */
+public class InstrumentedOrderRepo implements OrderRepo {
+
+    private final OrderRepo orders;
+    private final ShopMetrics metrics;
+
+    public InstrumentedOrderRepo(OrderRepo orders, ShopMetrics metrics) {
+        this.orders = orders;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<Order> getOrders() {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> result = orders.getOrders();
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_ORDERS, start, success);
+        }
+    }
+
+    // Lazy, so there is no call duration worth recording; only delegated so the wrapped repo's stream is used.
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.streamOrders();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        orders.forEachOrder(filter, action);
+    }
+
+    @Override
+    public Order getOrderById(String id) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order result = orders.getOrderById(id);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_ORDER_BY_ID, start, success);
+        }
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order result = orders.addOrder(newOrder);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_ADD_ORDER, start, success);
+        }
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> result = orders.addOrders(newOrders);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_ADD_ORDERS, start, success);
+        }
+    }
+
+    @Override
+    public Optional<Order> removeOrder(String id) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Optional<Order> result = orders.removeOrder(id);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_REMOVE_ORDER, start, success);
+        }
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Optional<Order> result = orders.updateOrder(orderId, orderStatus);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_UPDATE_ORDER, start, success);
+        }
+    }
+
+    @Override
+    public Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Optional<Order> result = orders.updateOrder(orderId, expectedVersion, orderStatus);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_UPDATE_ORDER, start, success);
+        }
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> result = orders.getOrdersByOrderStatus(orderStatus);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_ORDERS_BY_STATUS, start, success);
+        }
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Optional<Order> result = orders.getOldestOrderByOrderStatus(orderStatus);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_OLDEST_ORDER_BY_STATUS, start, success);
+        }
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            OrderPage result = orders.getOrderPage(cursor, limit);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_ORDER_PAGE, start, success);
+        }
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            OrderPage result = orders.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(Operation.REPO_GET_ORDER_PAGE, start, success);
+        }
+    }
+}
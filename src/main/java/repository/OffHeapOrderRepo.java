@@ -0,0 +1,459 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link OrderRepo} that keeps orders outside the Java heap, so millions of orders add no work for the garbage collector.
+ * <p>
+ * Every order occupies one fixed 64 byte slot in a direct {@link ByteBuffer} segment: status byte, id length,
+ * zone number, basket position and length, {@code orderedAt} as epoch microseconds, the version and the id as ASCII bytes.
+ * Baskets are stored as product ordinals from {@link ProductRepo} in one growing direct int buffer, and the
+ * id lookup is an open-addressing hash table in another direct int buffer. A bitset of slots per status (one bit
+ * per slot and status on the heap) answers the status queries: {@link #getOrdersByOrderStatus(OrderStatus)} and
+ * {@link #getOldestOrderByOrderStatus(OrderStatus)} cost one pass over {@code capacity / 64} words plus the matching
+ * orders, so they are cheap for rare statuses but still linear in the matches for common ones; page through
+ * {@link #streamOrders()} rather than polling them on a hot path. {@link Order} records are only
+ * materialized when a caller reads them.
+ * <p>
+ * Limits: ids must be ASCII and at most {@value #MAX_ID_LENGTH} characters, {@code orderedAt} is kept with
+ * microsecond precision, versions are kept as an unsigned 32 bit counter that wraps after 2^32 updates of one order,
+ * and basket space of removed orders is not reclaimed. All methods synchronize on the repo. Products of stored
+ * orders that are not in the catalogue are registered in the {@link ProductRepo} ordinal registry, which is safe
+ * to use while other threads place orders.
+ */
+public class OffHeapOrderRepo implements OrderRepo {
+
+    public static final int MAX_ID_LENGTH = 40;
+
+    private static final int SLOT_BYTES = 64;
+    private static final int SLOTS_PER_SEGMENT = 1 << 16;
+    private static final int STATUS_OFFSET = 0;
+    private static final int ID_LENGTH_OFFSET = 1;
+    private static final int ZONE_OFFSET = 2;
+    private static final int BASKET_START_OFFSET = 4;
+    private static final int BASKET_LENGTH_OFFSET = 8;
+    private static final int ORDERED_AT_OFFSET = 12;
+    private static final int VERSION_OFFSET = 20;
+    private static final int ID_OFFSET = 24;
+    private static final byte FREE = -1;
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ProductRepo productRepo;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int slotCount;
+    // bit per slot for each status, kept in step with the status byte
+    private final long[][] slotsByStatus = new long[STATUSES.length][1];
+    private final int[] countByStatus = new int[STATUSES.length];
+
+    private IntBuffer baskets = ByteBuffer.allocateDirect(4 * 1024 * 1024).asIntBuffer();
+    private int basketsEnd;
+
+    // slot + 1 per entry, EMPTY or TOMBSTONE for unused entries
+    private IntBuffer index = ByteBuffer.allocateDirect(4 * 1024).asIntBuffer();
+    private int indexUsed;
+    private int size;
+
+    private final List<ZoneId> zones = new ArrayList<>();
+    private final Map<ZoneId, Integer> zoneNumbers = new HashMap<>();
+
+    public OffHeapOrderRepo(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @Override
+    public synchronized List<Order> getOrders() {
+        List<Order> orders = new ArrayList<>(size);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (status(slot) != FREE) {
+                orders.add(materialize(slot));
+            }
+        }
+        return orders;
+    }
+
+    // Materializes one slot per lock acquisition, so writers can run between two orders of a long walk.
+    // Orders added behind the cursor while walking are not seen.
+    @Override
+    public Stream<Order> streamOrders() {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.NONNULL) {
+            private int nextSlot;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Order> action) {
+                Order order;
+                do {
+                    synchronized (OffHeapOrderRepo.this) {
+                        if (nextSlot >= slotCount) {
+                            return false;
+                        }
+                        int slot = nextSlot++;
+                        order = status(slot) == FREE ? null : materialize(slot);
+                    }
+                } while (order == null);
+                action.accept(order);
+                return true;
+            }
+        }, false);
+    }
+
+    @Override
+    public synchronized Order getOrderById(String id) {
+        int entry = find(id);
+        return entry < 0 ? null : materialize(index.get(entry) - 1);
+    }
+
+    @Override
+    public synchronized Order addOrder(Order newOrder) {
+        String id = newOrder.id();
+        checkId(id);
+        int entry = find(id);
+        if (entry >= 0) {
+            freeSlot(index.get(entry) - 1);
+            index.put(entry, TOMBSTONE);
+            size--;
+        }
+        int slot = allocateSlot();
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+
+        setStatus(slot, newOrder.orderStatus().ordinal());
+        segment.put(base + ID_LENGTH_OFFSET, (byte) id.length());
+        segment.putShort(base + ZONE_OFFSET, (short) zoneNumber(newOrder.orderedAt().getZone()));
+        segment.putInt(base + BASKET_START_OFFSET, basketsEnd);
+        segment.putInt(base + BASKET_LENGTH_OFFSET, newOrder.products().size());
+        segment.putLong(base + ORDERED_AT_OFFSET, ChronoUnit.MICROS.between(Instant.EPOCH, newOrder.orderedAt().toInstant()));
+        segment.putInt(base + VERSION_OFFSET, (int) newOrder.version());
+        for (int i = 0; i < id.length(); i++) {
+            segment.put(base + ID_OFFSET + i, (byte) id.charAt(i));
+        }
+        List<Product> products = newOrder.products();
+        if (products instanceof ProductBasket basket && basket.belongsTo(productRepo)) {
+            for (int i = 0; i < basket.size(); i++) {
+                appendBasketEntry(basket.ordinal(i));
+            }
+        } else {
+            for (Product product : products) {
+                appendBasketEntry(productRepo.getOrdinal(product));
+            }
+        }
+
+        insertIntoIndex(id, slot);
+        return newOrder;
+    }
+
+    @Override
+    public synchronized List<Order> addOrders(List<Order> newOrders) {
+        for (Order newOrder : newOrders) {
+            checkId(newOrder.id());
+        }
+        for (Order newOrder : newOrders) {
+            addOrder(newOrder);
+        }
+        return newOrders;
+    }
+
+    @Override
+    public synchronized Optional<Order> removeOrder(String id) {
+        int entry = find(id);
+        if (entry < 0) {
+            return Optional.empty();
+        }
+        Order removedOrder = materialize(index.get(entry) - 1);
+        freeSlot(index.get(entry) - 1);
+        index.put(entry, TOMBSTONE);
+        size--;
+        return Optional.of(removedOrder);
+    }
+
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, OrderStatus orderStatus) {
+        int entry = find(orderId);
+        if (entry < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(replace(index.get(entry) - 1, orderStatus));
+    }
+
+    @Override
+    public synchronized Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        int entry = find(orderId);
+        if (entry < 0) {
+            return Optional.empty();
+        }
+        int slot = index.get(entry) - 1;
+        if (version(slot) != (expectedVersion & 0xFFFFFFFFL)) {
+            return Optional.empty();
+        }
+        return Optional.of(replace(slot, orderStatus));
+    }
+
+    // Walks the status bitset and only materializes the matching orders.
+    @Override
+    public synchronized List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        int status = orderStatus.ordinal();
+        List<Order> orders = new ArrayList<>(countByStatus[status]);
+        for (int slot = nextSlotWithStatus(status, 0); slot >= 0; slot = nextSlotWithStatus(status, slot + 1)) {
+            orders.add(materialize(slot));
+        }
+        return orders;
+    }
+
+    @Override
+    public synchronized Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        int oldestSlot = -1;
+        long oldestMicros = Long.MAX_VALUE;
+        int status = orderStatus.ordinal();
+        for (int slot = nextSlotWithStatus(status, 0); slot >= 0; slot = nextSlotWithStatus(status, slot + 1)) {
+            long micros = segment(slot).getLong(offset(slot) + ORDERED_AT_OFFSET);
+            // ties are broken by id, like Order.BY_ORDERED_AT
+            if (micros < oldestMicros || (micros == oldestMicros && compareIds(slot, oldestSlot) < 0)) {
+                oldestMicros = micros;
+                oldestSlot = slot;
+            }
+        }
+        return oldestSlot < 0 ? Optional.empty() : Optional.of(materialize(oldestSlot));
+    }
+
+    private Order materialize(int slot) {
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+
+        char[] id = new char[segment.get(base + ID_LENGTH_OFFSET)];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = (char) segment.get(base + ID_OFFSET + i);
+        }
+
+        int basketStart = segment.getInt(base + BASKET_START_OFFSET);
+        int basketLength = segment.getInt(base + BASKET_LENGTH_OFFSET);
+        int[] ordinals = new int[basketLength];
+        baskets.get(basketStart, ordinals);
+
+        long micros = segment.getLong(base + ORDERED_AT_OFFSET);
+        Instant instant = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+        ZoneId zone = zones.get(segment.getShort(base + ZONE_OFFSET));
+
+        return new Order(new String(id), productRepo.basketOf(ordinals), STATUSES[segment.get(base + STATUS_OFFSET)], ZonedDateTime.ofInstant(instant, zone), version(slot));
+    }
+
+    private Order replace(int slot, OrderStatus orderStatus) {
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+        setStatus(slot, orderStatus.ordinal());
+        segment.putInt(base + VERSION_OFFSET, segment.getInt(base + VERSION_OFFSET) + 1);
+        return materialize(slot);
+    }
+
+    private long version(int slot) {
+        return Integer.toUnsignedLong(segment(slot).getInt(offset(slot) + VERSION_OFFSET));
+    }
+
+    private void checkId(String id) {
+        if (id.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Order id longer than " + MAX_ID_LENGTH + " characters: " + id);
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) > 127) {
+                throw new IllegalArgumentException("Order id is not ASCII: " + id);
+            }
+        }
+    }
+
+    private int zoneNumber(ZoneId zone) {
+        return zoneNumbers.computeIfAbsent(zone, z -> {
+            zones.add(z);
+            return zones.size() - 1;
+        });
+    }
+
+    private ByteBuffer segment(int slot) {
+        return segments.get(slot / SLOTS_PER_SEGMENT);
+    }
+
+    private int offset(int slot) {
+        return (slot % SLOTS_PER_SEGMENT) * SLOT_BYTES;
+    }
+
+    private byte status(int slot) {
+        return segment(slot).get(offset(slot) + STATUS_OFFSET);
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == segments.size() * SLOTS_PER_SEGMENT) {
+            segments.add(ByteBuffer.allocateDirect(SLOTS_PER_SEGMENT * SLOT_BYTES));
+        }
+        // a fresh slot reads as status 0, which is a real status
+        segment(slotCount).put(offset(slotCount) + STATUS_OFFSET, FREE);
+        return slotCount++;
+    }
+
+    private void freeSlot(int slot) {
+        setStatus(slot, FREE);
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private void setStatus(int slot, int status) {
+        int previous = status(slot);
+        if (previous == status) {
+            return;
+        }
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        if (previous != FREE) {
+            slotsByStatus[previous][word] &= ~bit;
+            countByStatus[previous]--;
+        }
+        if (status != FREE) {
+            if (word >= slotsByStatus[status].length) {
+                slotsByStatus[status] = Arrays.copyOf(slotsByStatus[status], Math.max(word + 1, slotsByStatus[status].length * 2));
+            }
+            slotsByStatus[status][word] |= bit;
+            countByStatus[status]++;
+        }
+        segment(slot).put(offset(slot) + STATUS_OFFSET, (byte) status);
+    }
+
+    // -1 if there is none
+    private int nextSlotWithStatus(int status, int fromSlot) {
+        if (countByStatus[status] == 0) {
+            return -1;
+        }
+        long[] words = slotsByStatus[status];
+        int word = fromSlot >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << fromSlot);
+        while (bits == 0) {
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private void appendBasketEntry(int ordinal) {
+        if (basketsEnd == baskets.capacity()) {
+            IntBuffer grown = ByteBuffer.allocateDirect(baskets.capacity() * 2 * Integer.BYTES).asIntBuffer();
+            grown.put(baskets.duplicate().clear());
+            baskets = grown;
+        }
+        baskets.put(basketsEnd++, ordinal);
+    }
+
+    private int find(String id) {
+        int mask = index.capacity() - 1;
+        for (int entry = spread(id.hashCode()) & mask; ; entry = (entry + 1) & mask) {
+            int value = index.get(entry);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != TOMBSTONE && idEquals(value - 1, id)) {
+                return entry;
+            }
+        }
+    }
+
+    private void insertIntoIndex(String id, int slot) {
+        if ((indexUsed + 1) * 2 > index.capacity()) {
+            rebuildIndex(size + 1 > index.capacity() / 4 ? index.capacity() * 2 : index.capacity());
+        }
+        int mask = index.capacity() - 1;
+        int entry = spread(id.hashCode()) & mask;
+        while (index.get(entry) != EMPTY) {
+            entry = (entry + 1) & mask;
+        }
+        index.put(entry, slot + 1);
+        indexUsed++;
+        size++;
+    }
+
+    // Drops tombstones and, if needed, grows the table.
+    private void rebuildIndex(int capacity) {
+        IntBuffer old = index;
+        index = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        indexUsed = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < old.capacity(); i++) {
+            int value = old.get(i);
+            if (value != EMPTY && value != TOMBSTONE) {
+                int entry = spread(idHash(value - 1)) & mask;
+                while (index.get(entry) != EMPTY) {
+                    entry = (entry + 1) & mask;
+                }
+                index.put(entry, value);
+                indexUsed++;
+            }
+        }
+    }
+
+    private boolean idEquals(int slot, String id) {
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+        if (segment.get(base + ID_LENGTH_OFFSET) != id.length()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (segment.get(base + ID_OFFSET + i) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same order as String.compareTo of the stored ASCII ids.
+    private int compareIds(int slot, int otherSlot) {
+        ByteBuffer segment = segment(slot);
+        ByteBuffer otherSegment = segment(otherSlot);
+        int base = offset(slot);
+        int otherBase = offset(otherSlot);
+        int length = segment.get(base + ID_LENGTH_OFFSET);
+        int otherLength = otherSegment.get(otherBase + ID_LENGTH_OFFSET);
+        for (int i = 0; i < Math.min(length, otherLength); i++) {
+            int difference = segment.get(base + ID_OFFSET + i) - otherSegment.get(otherBase + ID_OFFSET + i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    // Same value as String.hashCode of the stored ASCII id.
+    private int idHash(int slot) {
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+        int hash = 0;
+        for (int i = 0; i < segment.get(base + ID_LENGTH_OFFSET); i++) {
+            hash = 31 * hash + segment.get(base + ID_OFFSET + i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
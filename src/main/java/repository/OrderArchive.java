@@ -0,0 +1,199 @@
+package repository;
+
+import model.Order;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only, compressed on-disk store for orders that are no longer expected to change.
+ * <p>
+ * Orders are written in blocks: {@code [int compressed length][int order count][int CRC32][deflated orders]}, each
+ * order in {@link OrderBinaryCodec} form. Only an id to block offset map stays in memory; looking an order up reads
+ * and inflates its block. The most recently inflated block is kept, so lookups of orders archived together are cheap.
+ * A torn block at the end of the file (crash while appending) is cut off when the archive is opened; a damaged block
+ * anywhere else fails with an {@link IOException}, since the orders in it exist nowhere else.
+ */
+public class OrderArchive implements Closeable {
+
+    private static final int BLOCK_HEADER_BYTES = 12;
+
+    private final FileChannel file;
+    private final Map<String, Long> blockOffsetById = new HashMap<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private long end;
+    private long cachedBlockOffset = -1;
+    private List<Order> cachedBlock;
+
+    public OrderArchive(Path path) throws IOException {
+        file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            rebuildIndex();
+        } catch (IOException e) {
+            file.close();
+            deflater.end();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the orders as one block and syncs it to disk before returning, so callers may drop them from memory afterwards.
+     */
+    public synchronized void append(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            deflater.reset();
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(compressed, deflater))) {
+                for (Order order : orders) {
+                    OrderBinaryCodec.writeOrder(out, order);
+                }
+            }
+            byte[] bytes = compressed.toByteArray();
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + bytes.length);
+            block.putInt(bytes.length).putInt(orders.size()).putInt(checksum(bytes)).put(bytes).flip();
+            long offset = end;
+            while (block.hasRemaining()) {
+                file.write(block, end + block.position());
+            }
+            file.force(false);
+            end += BLOCK_HEADER_BYTES + bytes.length;
+            for (Order order : orders) {
+                blockOffsetById.put(order.id(), offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive " + orders.size() + " orders", e);
+        }
+    }
+
+    public synchronized Order getOrderById(String id) {
+        Long offset = blockOffsetById.get(id);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            for (Order order : readBlock(offset)) {
+                if (order.id().equals(id)) {
+                    return order;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order " + id, e);
+        }
+    }
+
+    public synchronized boolean contains(String id) {
+        return blockOffsetById.containsKey(id);
+    }
+
+    public synchronized int size() {
+        return blockOffsetById.size();
+    }
+
+    /**
+     * Bytes on disk.
+     */
+    public synchronized long sizeOnDisk() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        deflater.end();
+        file.close();
+    }
+
+    private List<Order> readBlock(long offset) throws IOException {
+        if (offset == cachedBlockOffset) {
+            return cachedBlock;
+        }
+        ByteBuffer header = readFully(offset, BLOCK_HEADER_BYTES);
+        int length = header.getInt();
+        int count = header.getInt();
+        byte[] bytes = readFully(offset + BLOCK_HEADER_BYTES, length).array();
+        if (checksum(bytes) != header.getInt()) {
+            throw new IOException("Corrupt archive block checksum at offset " + offset);
+        }
+        List<Order> orders = decode(bytes, count);
+        cachedBlockOffset = offset;
+        cachedBlock = orders;
+        return orders;
+    }
+
+    private void rebuildIndex() throws IOException {
+        long size = file.size();
+        long offset = 0;
+        while (offset + BLOCK_HEADER_BYTES <= size) {
+            ByteBuffer header = readFully(offset, BLOCK_HEADER_BYTES);
+            int length = header.getInt();
+            int count = header.getInt();
+            int checksum = header.getInt();
+            if (length < 0 || count < 0) {
+                throw new IOException("Corrupt archive block header at offset " + offset);
+            }
+            long blockEnd = offset + BLOCK_HEADER_BYTES + length;
+            if (blockEnd > size) {
+                break;
+            }
+            byte[] bytes = readFully(offset + BLOCK_HEADER_BYTES, length).array();
+            if (checksum(bytes) != checksum) {
+                if (blockEnd == size) {
+                    break;
+                }
+                throw new IOException("Corrupt archive block checksum at offset " + offset);
+            }
+            for (Order order : decode(bytes, count)) {
+                blockOffsetById.put(order.id(), offset);
+            }
+            offset = blockEnd;
+        }
+        // everything after the last complete block is a torn append
+        file.truncate(offset);
+        end = offset;
+    }
+
+    private int checksum(byte[] bytes) {
+        crc.reset();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Archive ends inside a block at " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static List<Order> decode(byte[] compressed, int count) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed), inflater))) {
+            List<Order> orders = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                orders.add(OrderBinaryCodec.readOrder(in));
+            }
+            return orders;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of an {@link Order} shared by the on-disk order stores.
+ */
+public final class OrderBinaryCodec {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private OrderBinaryCodec() {
+    }
+
+    public static void writeOrder(DataOutput out, Order order) throws IOException {
+        out.writeUTF(order.id());
+        out.writeInt(order.products().size());
+        for (Product product : order.products()) {
+            out.writeUTF(product.id());
+            out.writeUTF(product.name());
+        }
+        writeStatus(out, order.orderStatus());
+        out.writeLong(order.orderedAt().toEpochSecond());
+        out.writeInt(order.orderedAt().getNano());
+        out.writeUTF(order.orderedAt().getZone().getId());
+        out.writeLong(order.version());
+    }
+
+    public static Order readOrder(DataInput in) throws IOException {
+        String id = in.readUTF();
+        int productCount = in.readInt();
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(new Product(in.readUTF(), in.readUTF()));
+        }
+        OrderStatus orderStatus = readStatus(in);
+        Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        ZonedDateTime orderedAt = ZonedDateTime.ofInstant(instant, ZoneId.of(in.readUTF()));
+        return new Order(id, products, orderStatus, orderedAt, in.readLong());
+    }
+
+    public static void writeStatus(DataOutput out, OrderStatus orderStatus) throws IOException {
+        out.writeByte(orderStatus.ordinal());
+    }
+
+    public static OrderStatus readStatus(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= STATUSES.length) {
+            throw new IOException("Unknown order status ordinal: " + ordinal);
+        }
+        return STATUSES[ordinal];
+    }
+}
@@ -0,0 +1,147 @@
+package repository;
+
+import enums.OrderChangeType;
+import model.Order;
+import model.OrderChangeEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer of {@link OrderChangeEvent}s with any number of publishers and subscribers.
+ * <p>
+ * Publishers claim a sequence with one atomic increment and store the event in slot {@code sequence % capacity}.
+ * The buffer never waits for subscribers: once it is full the oldest events are overwritten, so a slow subscriber
+ * can never hold up order intake. Instead each {@link Subscription} has its own cursor, notices when it has been
+ * lapped and counts the events it missed; {@link Subscription#lag()} tells it how far behind it is.
+ * <p>
+ * Events of one order published by racing writers can arrive out of order; {@link Order#version()} tells which one is newer.
+ */
+public class OrderChangeFeed {
+
+    private final AtomicReferenceArray<OrderChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param capacity number of events kept, a power of two
+     */
+    public OrderChangeFeed(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two but was " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public void publish(OrderChangeType type, Order order) {
+        long sequence = nextSequence.getAndIncrement();
+        OrderChangeEvent event = new OrderChangeEvent(sequence, type, order);
+        int slot = (int) (sequence & mask);
+        // a publisher that stalled for a whole lap must not overwrite the newer event that already took its slot
+        while (true) {
+            OrderChangeEvent current = slots.get(slot);
+            if (current != null && current.sequence() > sequence) {
+                return;
+            }
+            if (slots.compareAndSet(slot, current, event)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sequence the next published event will get.
+     */
+    public long headSequence() {
+        return nextSequence.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Subscribes to every event published from now on.
+     */
+    public Subscription subscribe() {
+        return new Subscription(nextSequence.get());
+    }
+
+    /**
+     * Subscribes starting with the oldest event still in the buffer.
+     */
+    public Subscription subscribeFromOldest() {
+        return new Subscription(Math.max(0, nextSequence.get() - capacity()));
+    }
+
+    /**
+     * A reader's position in the feed. Not thread-safe: one subscription belongs to one consuming thread.
+     */
+    public final class Subscription {
+
+        private long cursor;
+        private long missed;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Hands up to {@code maxEvents} events to {@code consumer} in sequence order and returns how many it handed.
+         * Stops early at an event whose publisher has claimed its sequence but not stored it yet.
+         */
+        public int poll(int maxEvents, Consumer<? super OrderChangeEvent> consumer) {
+            int polled = 0;
+            while (polled < maxEvents) {
+                long head = nextSequence.get();
+                if (cursor >= head) {
+                    break;
+                }
+                if (head - cursor > capacity()) {
+                    skipTo(head - capacity());
+                }
+                OrderChangeEvent event = slots.get((int) (cursor & mask));
+                if (event == null || event.sequence() < cursor) {
+                    break;
+                }
+                if (event.sequence() > cursor) {
+                    // lapped between reading head and reading the slot
+                    skipTo(Math.max(cursor + 1, nextSequence.get() - capacity()));
+                    continue;
+                }
+                consumer.accept(event);
+                cursor++;
+                polled++;
+            }
+            return polled;
+        }
+
+        /**
+         * Sequence of the next event this subscription will read.
+         */
+        public long cursor() {
+            return cursor;
+        }
+
+        /**
+         * Events published but not read yet, including ones that will turn out to be overwritten.
+         */
+        public long lag() {
+            return nextSequence.get() - cursor;
+        }
+
+        /**
+         * Events that were overwritten before this subscription got to them.
+         */
+        public long getMissedCount() {
+            return missed;
+        }
+
+        private void skipTo(long sequence) {
+            missed += sequence - cursor;
+            cursor = sequence;
+        }
+    }
+}
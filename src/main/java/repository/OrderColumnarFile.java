@@ -0,0 +1,356 @@
+package repository;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Columnar bulk export and import of orders, meant for moving large snapshots between environments.
+ * <p>
+ * Layout, all big-endian: a header {@code [magic][version][order count][product count][zone count]}, a product
+ * dictionary (id and name per product), a zone dictionary, and then one column per field: ids, status ordinal bytes,
+ * epoch seconds, nanos, zone indexes, versions, basket sizes and finally the product ordinals of all baskets back to
+ * back. Strings are an unsigned short length followed by UTF-8 bytes. Products and zones are written once and
+ * referenced by index, and the number columns are copied in bulk through large direct buffers.
+ */
+public final class OrderColumnarFile {
+
+    private static final int MAGIC = 0x4F52434C;
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int IMPORT_BATCH_SIZE = 16 * 1024;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int MAX_ZONES = 0x10000;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private OrderColumnarFile() {
+    }
+
+    /**
+     * Writes every order of the repository to the file, replacing it. Returns the number of orders written.
+     */
+    public static int exportOrders(OrderRepo orderRepo, Path file) throws IOException {
+        List<Order> orders = orderRepo.getOrders();
+        write(orders, file);
+        return orders.size();
+    }
+
+    /**
+     * Adds every order in the file to the repository in batches through {@link OrderRepo#addOrders(List)}.
+     * Returns the number of orders imported.
+     */
+    public static int importOrders(Path file, OrderRepo orderRepo) throws IOException {
+        List<Order> orders = read(file);
+        for (int from = 0; from < orders.size(); from += IMPORT_BATCH_SIZE) {
+            orderRepo.addOrders(orders.subList(from, Math.min(from + IMPORT_BATCH_SIZE, orders.size())));
+        }
+        return orders.size();
+    }
+
+    public static void write(List<Order> orders, Path file) throws IOException {
+        int count = orders.size();
+        Map<Product, Integer> productIndexes = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        Map<ZoneId, Integer> zoneIndexes = new HashMap<>();
+        List<ZoneId> zones = new ArrayList<>();
+        byte[] statuses = new byte[count];
+        long[] epochSeconds = new long[count];
+        int[] nanos = new int[count];
+        short[] zoneColumn = new short[count];
+        long[] versions = new long[count];
+        int[] basketSizes = new int[count];
+        int[] ordinals = new int[count * 4];
+        int ordinalCount = 0;
+
+        for (int i = 0; i < count; i++) {
+            Order order = orders.get(i);
+            statuses[i] = (byte) order.orderStatus().ordinal();
+            ZonedDateTime orderedAt = order.orderedAt();
+            epochSeconds[i] = orderedAt.toEpochSecond();
+            nanos[i] = orderedAt.getNano();
+            Integer zone = zoneIndexes.get(orderedAt.getZone());
+            if (zone == null) {
+                if (zones.size() == MAX_ZONES) {
+                    throw new IllegalArgumentException("More than " + MAX_ZONES + " distinct zones");
+                }
+                zone = zones.size();
+                zoneIndexes.put(orderedAt.getZone(), zone);
+                zones.add(orderedAt.getZone());
+            }
+            zoneColumn[i] = (short) (int) zone;
+            versions[i] = order.version();
+            List<Product> basket = order.products();
+            basketSizes[i] = basket.size();
+            if (ordinalCount + basket.size() > ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(ordinals.length * 2, ordinalCount + basket.size()));
+            }
+            for (Product product : basket) {
+                Integer ordinal = productIndexes.get(product);
+                if (ordinal == null) {
+                    ordinal = products.size();
+                    productIndexes.put(product, ordinal);
+                    products.add(product);
+                }
+                ordinals[ordinalCount++] = ordinal;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ColumnWriter out = new ColumnWriter(channel);
+            out.ensure(20);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(products.size()).putInt(zones.size());
+            for (Product product : products) {
+                out.putString(product.id());
+                out.putString(product.name());
+            }
+            for (ZoneId zone : zones) {
+                out.putString(zone.getId());
+            }
+            for (Order order : orders) {
+                out.putString(order.id());
+            }
+            out.putBytes(statuses, count);
+            out.putLongs(epochSeconds, count);
+            out.putInts(nanos, count);
+            out.putShorts(zoneColumn, count);
+            out.putLongs(versions, count);
+            out.putInts(basketSizes, count);
+            out.putInts(ordinals, ordinalCount);
+            out.flush();
+            channel.force(false);
+        }
+    }
+
+    public static List<Order> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ColumnReader in = new ColumnReader(channel);
+            in.ensure(20);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a columnar order file: " + file);
+            }
+            int version = in.buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar order file version " + version + ": " + file);
+            }
+            int count = in.buffer.getInt();
+            int productCount = in.buffer.getInt();
+            int zoneCount = in.buffer.getInt();
+            if (count < 0 || productCount < 0 || zoneCount < 0) {
+                throw new IOException("Corrupt columnar order file header: " + file);
+            }
+
+            Product[] products = new Product[productCount];
+            for (int i = 0; i < productCount; i++) {
+                products[i] = new Product(in.getString(), in.getString());
+            }
+            ZoneId[] zones = new ZoneId[zoneCount];
+            for (int i = 0; i < zoneCount; i++) {
+                zones[i] = ZoneId.of(in.getString());
+            }
+            String[] ids = new String[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.getString();
+            }
+            byte[] statuses = in.getBytes(count);
+            long[] epochSeconds = in.getLongs(count);
+            int[] nanos = in.getInts(count);
+            short[] zoneColumn = in.getShorts(count);
+            long[] versions = in.getLongs(count);
+            int[] basketSizes = in.getInts(count);
+            long ordinalCount = 0;
+            for (int basketSize : basketSizes) {
+                if (basketSize < 0) {
+                    throw new IOException("Corrupt basket size in " + file);
+                }
+                ordinalCount += basketSize;
+            }
+            if (ordinalCount > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt basket sizes in " + file);
+            }
+            int[] ordinals = in.getInts((int) ordinalCount);
+
+            List<Order> orders = new ArrayList<>(count);
+            int nextOrdinal = 0;
+            for (int i = 0; i < count; i++) {
+                int status = statuses[i] & 0xFF;
+                int zone = zoneColumn[i] & 0xFFFF;
+                int basketSize = basketSizes[i];
+                if (status >= STATUSES.length || zone >= zoneCount) {
+                    throw new IOException("Corrupt order " + ids[i] + " in " + file);
+                }
+                Product[] basket = new Product[basketSize];
+                for (int j = 0; j < basketSize; j++) {
+                    int ordinal = ordinals[nextOrdinal++];
+                    if (ordinal < 0 || ordinal >= productCount) {
+                        throw new IOException("Unknown product ordinal " + ordinal + " in order " + ids[i]);
+                    }
+                    basket[j] = products[ordinal];
+                }
+                ZonedDateTime orderedAt = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[i], nanos[i]), zones[zone]);
+                orders.add(new Order(ids[i], List.of(basket), STATUSES[status], orderedAt, versions[i]));
+            }
+            return orders;
+        }
+    }
+
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                throw new IllegalArgumentException("String longer than " + MAX_STRING_BYTES + " bytes: " + value.substring(0, 32) + "...");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+
+        void putBytes(byte[] values, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), length - offset);
+                buffer.put(values, offset, n);
+                offset += n;
+            }
+        }
+
+        void putShorts(short[] values, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                ensure(Short.BYTES);
+                int n = Math.min(buffer.remaining() / Short.BYTES, length - offset);
+                buffer.asShortBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Short.BYTES);
+                offset += n;
+            }
+        }
+
+        void putInts(int[] values, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                ensure(Integer.BYTES);
+                int n = Math.min(buffer.remaining() / Integer.BYTES, length - offset);
+                buffer.asIntBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                offset += n;
+            }
+        }
+
+        void putLongs(long[] values, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                ensure(Long.BYTES);
+                int n = Math.min(buffer.remaining() / Long.BYTES, length - offset);
+                buffer.asLongBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                offset += n;
+            }
+        }
+    }
+
+    private static final class ColumnReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+
+        ColumnReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Columnar order file ends early");
+                }
+            }
+            buffer.flip();
+        }
+
+        String getString() throws IOException {
+            ensure(2);
+            int length = buffer.getShort() & 0xFFFF;
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        byte[] getBytes(int length) throws IOException {
+            byte[] values = new byte[length];
+            for (int offset = 0; offset < length; ) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), length - offset);
+                buffer.get(values, offset, n);
+                offset += n;
+            }
+            return values;
+        }
+
+        short[] getShorts(int length) throws IOException {
+            short[] values = new short[length];
+            for (int offset = 0; offset < length; ) {
+                ensure(Short.BYTES);
+                int n = Math.min(buffer.remaining() / Short.BYTES, length - offset);
+                buffer.asShortBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Short.BYTES);
+                offset += n;
+            }
+            return values;
+        }
+
+        int[] getInts(int length) throws IOException {
+            int[] values = new int[length];
+            for (int offset = 0; offset < length; ) {
+                ensure(Integer.BYTES);
+                int n = Math.min(buffer.remaining() / Integer.BYTES, length - offset);
+                buffer.asIntBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                offset += n;
+            }
+            return values;
+        }
+
+        long[] getLongs(int length) throws IOException {
+            long[] values = new long[length];
+            for (int offset = 0; offset < length; ) {
+                ensure(Long.BYTES);
+                int n = Math.min(buffer.remaining() / Long.BYTES, length - offset);
+                buffer.asLongBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                offset += n;
+            }
+            return values;
+        }
+    }
+}
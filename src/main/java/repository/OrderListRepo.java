@@ -6,12 +6,18 @@ import model.Order;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class OrderListRepo implements OrderRepo {
     private List<Order> orders = new ArrayList<>();
 
     public List<Order> getOrders() {
-        return orders;
+        return new ArrayList<>(orders);
+    }
+
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.stream();
     }
 
     public Order getOrderById(String id) {
@@ -28,20 +34,21 @@ public class OrderListRepo implements OrderRepo {
         return newOrder;
     }
 
-    public void removeOrder(String id) {
+    public Optional<Order> removeOrder(String id) {
         for (Order order : orders) {
             if (order.id().equals(id)) {
                 orders.remove(order);
-                return;
+                return Optional.of(order);
             }
         }
+        return Optional.empty();
     }
 
     @Override
     public Optional<Order> updateOrder(String id, OrderStatus orderStatus) {
         for (Order order : orders) {
             if (order.id().equals(id)) {
-                Order updatedOrder = order.withOrderStatus(orderStatus);
+                Order updatedOrder = order.nextVersion(orderStatus);
                 int index = orders.indexOf(order);
                 orders.set(index, updatedOrder);
                 return Optional.of(updatedOrder);
@@ -49,4 +56,20 @@ public class OrderListRepo implements OrderRepo {
         }
         return Optional.empty();
     }
+
+    @Override
+    public Optional<Order> updateOrder(String id, long expectedVersion, OrderStatus orderStatus) {
+        for (int index = 0; index < orders.size(); index++) {
+            Order order = orders.get(index);
+            if (order.id().equals(id)) {
+                if (order.version() != expectedVersion) {
+                    return Optional.empty();
+                }
+                Order updatedOrder = order.nextVersion(orderStatus);
+                orders.set(index, updatedOrder);
+                return Optional.of(updatedOrder);
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -2,17 +2,43 @@ package repository;
 
 import enums.OrderStatus;
 import model.Order;
+import model.OrderPage;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public class OrderMapRepo implements OrderRepo {
     private Map<String, Order> orders = new HashMap<>();
+    private Map<OrderStatus, NavigableSet<Order>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+
+    public OrderMapRepo() {
+        for (OrderStatus orderStatus : OrderStatus.values()) {
+            ordersByStatus.put(orderStatus, new TreeSet<>(Order.BY_ORDERED_AT));
+        }
+    }
 
     @Override
     public List<Order> getOrders() {
         return new ArrayList<>(orders.values());
     }
 
+    // Not thread-safe like the rest of this repo; changing it while a stream is consumed fails fast.
+    @Override
+    public Stream<Order> streamOrders() {
+        return orders.values().stream();
+    }
+
+    @Override
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        for (Order order : orders.values()) {
+            if (filter.test(order)) {
+                action.accept(order);
+            }
+        }
+    }
+
     @Override
     public Order getOrderById(String id) {
         return orders.get(id);
@@ -20,23 +46,84 @@ public class OrderMapRepo implements OrderRepo {
 
     @Override
     public Order addOrder(Order newOrder) {
-        orders.put(newOrder.id(), newOrder);
+        Order previousOrder = orders.put(newOrder.id(), newOrder);
+        unindex(previousOrder);
+        index(newOrder);
         return newOrder;
     }
 
     @Override
-    public void removeOrder(String id) {
-        orders.remove(id);
+    public Optional<Order> removeOrder(String id) {
+        Order removedOrder = orders.remove(id);
+        unindex(removedOrder);
+        return Optional.ofNullable(removedOrder);
     }
 
     @Override
     public Optional<Order> updateOrder(String id, OrderStatus orderStatus) {
         Order existingOrder = orders.get(id);
         if (existingOrder != null) {
-            Order updatedOrder = existingOrder.withOrderStatus(orderStatus);
-            orders.put(id, updatedOrder);
-            return Optional.of(updatedOrder);
+            return Optional.of(replace(existingOrder, orderStatus));
         }
         return Optional.empty();
     }
+
+    @Override
+    public Optional<Order> updateOrder(String id, long expectedVersion, OrderStatus orderStatus) {
+        Order existingOrder = orders.get(id);
+        if (existingOrder != null && existingOrder.version() == expectedVersion) {
+            return Optional.of(replace(existingOrder, orderStatus));
+        }
+        return Optional.empty();
+    }
+
+    private Order replace(Order existingOrder, OrderStatus orderStatus) {
+        Order updatedOrder = existingOrder.nextVersion(orderStatus);
+        orders.put(updatedOrder.id(), updatedOrder);
+        unindex(existingOrder);
+        index(updatedOrder);
+        return updatedOrder;
+    }
+
+    @Override
+    public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return new ArrayList<>(ordersByStatus.get(orderStatus));
+    }
+
+    @Override
+    public Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        Iterator<Order> oldestFirst = ordersByStatus.get(orderStatus).iterator();
+        return oldestFirst.hasNext() ? Optional.of(oldestFirst.next()) : Optional.empty();
+    }
+
+    @Override
+    public OrderPage getOrderPage(String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        Order after = OrderPages.positionOf(cursor);
+        List<Iterator<Order>> sources = new ArrayList<>(ordersByStatus.size());
+        for (NavigableSet<Order> orders : ordersByStatus.values()) {
+            sources.add(tail(orders, after));
+        }
+        return OrderPages.merge(sources, limit);
+    }
+
+    @Override
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        return OrderPages.merge(List.of(tail(ordersByStatus.get(orderStatus), OrderPages.positionOf(cursor))), limit);
+    }
+
+    private static Iterator<Order> tail(NavigableSet<Order> orders, Order after) {
+        return after == null ? orders.iterator() : orders.tailSet(after, false).iterator();
+    }
+
+    private void index(Order order) {
+        ordersByStatus.get(order.orderStatus()).add(order);
+    }
+
+    private void unindex(Order order) {
+        if (order != null) {
+            ordersByStatus.get(order.orderStatus()).remove(order);
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package repository;
+
+import model.Order;
+import model.OrderPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Building blocks for keyset pagination. A cursor encodes the position (orderedAt and id) of the last order of a page,
+ * so the next page starts right after it no matter how many pages came before.
+ */
+final class OrderPages {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final char SEPARATOR = '|';
+
+    private OrderPages() {
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1 but was " + limit);
+        }
+    }
+
+    /**
+     * Returns an order that sorts exactly where the cursor points, for {@code tailSet} lookups, or null for the first page.
+     */
+    static Order positionOf(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String position = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            ZonedDateTime orderedAt = ZonedDateTime.parse(position.substring(0, separator));
+            return new Order(position.substring(separator + 1), List.of(), null, orderedAt);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    static String cursorOf(Order order) {
+        // the zone id never contains the separator, the order id may
+        String position = order.orderedAt().toString() + SEPARATOR + order.id();
+        return ENCODER.encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Merges sources that are each already sorted by {@link Order#BY_ORDERED_AT} and start after the cursor,
+     * taking at most {@code limit} orders and one more to learn whether a next page exists.
+     */
+    static OrderPage merge(List<Iterator<Order>> sources, int limit) {
+        List<Order> heads = new ArrayList<>(sources.size());
+        for (Iterator<Order> source : sources) {
+            heads.add(source.hasNext() ? source.next() : null);
+        }
+        List<Order> orders = new ArrayList<>(limit);
+        while (true) {
+            int smallest = -1;
+            for (int i = 0; i < heads.size(); i++) {
+                Order head = heads.get(i);
+                if (head != null && (smallest < 0 || Order.BY_ORDERED_AT.compare(head, heads.get(smallest)) < 0)) {
+                    smallest = i;
+                }
+            }
+            if (smallest < 0) {
+                return new OrderPage(orders, null);
+            }
+            if (orders.size() == limit) {
+                return new OrderPage(orders, cursorOf(orders.get(limit - 1)));
+            }
+            orders.add(heads.get(smallest));
+            Iterator<Order> source = sources.get(smallest);
+            heads.set(smallest, source.hasNext() ? source.next() : null);
+        }
+    }
+
+    /**
+     * Page out of unsorted orders, for repositories without an ordered index. Scans all orders but only keeps
+     * {@code limit + 1} of them at a time.
+     */
+    static OrderPage fromUnsorted(Stream<Order> orders, String cursor, int limit) {
+        Order after = positionOf(cursor);
+        PriorityQueue<Order> smallest = new PriorityQueue<>(limit + 2, Order.BY_ORDERED_AT.reversed());
+        orders.forEach(order -> {
+            if (after == null || Order.BY_ORDERED_AT.compare(order, after) > 0) {
+                smallest.add(order);
+                if (smallest.size() > limit + 1) {
+                    smallest.poll();
+                }
+            }
+        });
+        List<Order> sorted = new ArrayList<>(smallest);
+        sorted.sort(Order.BY_ORDERED_AT);
+        return merge(List.of(sorted.iterator()), limit);
+    }
+}
@@ -2,19 +2,84 @@ package repository;
 
 import enums.OrderStatus;
 import model.Order;
+import model.OrderPage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface OrderRepo {
 
     List<Order> getOrders();
 
+    /**
+     * Lazily walks all orders without copying the store first. Falls back to {@link #getOrders()};
+     * repositories that can iterate their storage directly override this.
+     */
+    default Stream<Order> streamOrders() {
+        return getOrders().stream();
+    }
+
+    default void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        streamOrders().filter(filter).forEach(action);
+    }
+
     Order getOrderById(String id);
 
     Order addOrder(Order newOrder);
 
-    void removeOrder(String id);
+    // Inserts one by one. Repositories with a cheaper bulk path override this.
+    default List<Order> addOrders(List<Order> newOrders) {
+        for (Order newOrder : newOrders) {
+            addOrder(newOrder);
+        }
+        return newOrders;
+    }
 
+    /**
+     * Removes the order and returns it, or empty if there was none. The check and the removal are one step, so of
+     * two racing callers only one gets the order back.
+     */
+    Optional<Order> removeOrder(String id);
+
+    /**
+     * Sets the status whatever the current version is and moves the order to the next version.
+     */
     Optional<Order> updateOrder(String orderId, OrderStatus orderStatus);
+
+    /**
+     * Compare-and-set: only updates the order if its version is still {@code expectedVersion}. Empty if the order
+     * does not exist or has moved on; callers that need to tell the two apart read the order again.
+     */
+    Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus);
+
+    // Scans every order. Repositories that keep a status index override this.
+    default List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
+        return streamOrders().filter(o -> o.orderStatus().equals(orderStatus)).toList();
+    }
+
+    // Scans every order of the status. Repositories that keep a time-ordered index override this.
+    default Optional<Order> getOldestOrderByOrderStatus(OrderStatus orderStatus) {
+        return getOrdersByOrderStatus(orderStatus).stream().min(Order.BY_ORDERED_AT);
+    }
+
+    /**
+     * Up to {@code limit} orders ordered by {@link Order#BY_ORDERED_AT}, starting after {@code cursor}
+     * (null for the first page). Scans every order; repositories that keep a time-ordered index override this
+     * so a page costs the same no matter how deep it is.
+     */
+    default OrderPage getOrderPage(String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        return OrderPages.fromUnsorted(streamOrders(), cursor, limit);
+    }
+
+    /**
+     * Like {@link #getOrderPage(String, int)}, restricted to one status.
+     */
+    default OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        OrderPages.checkLimit(limit);
+        return OrderPages.fromUnsorted(streamOrders().filter(o -> o.orderStatus() == orderStatus), cursor, limit);
+    }
 }
@@ -0,0 +1,63 @@
+package repository;
+
+import model.Product;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable basket that stores the {@link ProductRepo} ordinals of its products instead of product references.
+ * Behaves like any other {@code List<Product>}; products are looked up by ordinal on access.
+ * Instances are created and shared through {@link ProductRepo#getBasketByIds(List)} and {@link ProductRepo#basketOf(int[])}.
+ */
+final class ProductBasket extends AbstractList<Product> implements RandomAccess {
+
+    private final ProductRepo productRepo;
+    private final int[] ordinals;
+    // same value as List.hashCode, computed once since the basket never changes
+    private final int hash;
+
+    ProductBasket(ProductRepo productRepo, int[] ordinals) {
+        this.productRepo = productRepo;
+        this.ordinals = ordinals;
+        int h = 1;
+        for (int ordinal : ordinals) {
+            h = 31 * h + productRepo.getProductByOrdinal(ordinal).hashCode();
+        }
+        this.hash = h;
+    }
+
+    @Override
+    public Product get(int index) {
+        return productRepo.getProductByOrdinal(ordinals[index]);
+    }
+
+    @Override
+    public int size() {
+        return ordinals.length;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    boolean belongsTo(ProductRepo repo) {
+        return productRepo == repo;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    // ordinals of one repo map to distinct products, so comparing them is enough
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ProductBasket other && other.productRepo == productRepo) {
+            return other.hash == hash && Arrays.equals(other.ordinals, ordinals);
+        }
+        return super.equals(o);
+    }
+}
@@ -1,42 +1,165 @@
 package repository;
 
-import lombok.Data;
 import model.Product;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-@Data
+/**
+ * Product catalogue plus the ordinal registry that compact baskets and off-heap orders are stored in.
+ * <p>
+ * The ordinal registry is safe for concurrent use: repositories register products of stored orders while order
+ * placement resolves baskets on other threads. Registration is serialized; lookups take no lock. The catalogue
+ * itself is meant to be filled before orders are placed concurrently.
+ */
 public class ProductRepo {
-    private List<Product> products;
+    static final int MAX_INTERNED_BASKETS = 1 << 16;
+
+    // keyed by product id, insertion ordered so getProducts keeps the order products were added in
+    private final Map<String, Product> productsById;
+    // every distinct product ever seen gets a stable int ordinal; entries stay after removal so stored orders can still resolve them.
+    // Copy-on-grow: register fills the slot and then republishes the array, so a reader that got an ordinal from
+    // ordinalsByProduct always finds its product here.
+    private volatile Product[] productsByOrdinal = new Product[16];
+    private int registeredCount;
+    // one ordinal per distinct product, so registering a product that only lives in stored orders never shadows the
+    // catalogue product of the same id
+    private final Map<Product, Integer> ordinalsByProduct;
+    // identical baskets share one instance, bounded so a stream of unique baskets cannot grow it forever
+    private final Map<ProductBasket, ProductBasket> internedBaskets = new ConcurrentHashMap<>();
 
     public ProductRepo() {
-        products = new ArrayList<>();
+        productsById = new LinkedHashMap<>();
+        ordinalsByProduct = new ConcurrentHashMap<>();
     }
 
+    /**
+     * Returns the catalogue in insertion order. The list is a copy; changing it does not change the repository.
+     */
     public List<Product> getProducts() {
-        return products;
+        return new ArrayList<>(productsById.values());
+    }
+
+    /**
+     * Replaces the catalogue. Ordinals of products seen before stay valid.
+     */
+    public void setProducts(List<Product> products) {
+        productsById.clear();
+        for (Product product : products) {
+            addProduct(product);
+        }
     }
 
     public Optional<Product> getProductById(String id) {
-        return products.stream()
-                .filter(p -> p.id()
-                        .equals(id))
-                .findFirst();
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    /**
+     * Resolves a whole basket in one pass.
+     * Returns empty if at least one of the ids is unknown.
+     */
+    public Optional<List<Product>> getProductsByIds(List<String> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product product = productsById.get(id);
+            if (product == null) {
+                return Optional.empty();
+            }
+            products.add(product);
+        }
+        return Optional.of(products);
+    }
+
+    /**
+     * Like {@link #getProductsByIds(List)}, but returns a compact, immutable basket that is shared with every
+     * other order of the same products.
+     */
+    public Optional<List<Product>> getBasketByIds(List<String> ids) {
+        int[] ordinals = new int[ids.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            Product product = productsById.get(ids.get(i));
+            if (product == null) {
+                return Optional.empty();
+            }
+            // addProduct registered every catalogue product
+            ordinals[i] = ordinalsByProduct.get(product);
+        }
+        return Optional.of(basketOf(ordinals));
+    }
+
+    /**
+     * Returns the shared basket of the given product ordinals. The array must not be changed afterwards.
+     */
+    public List<Product> basketOf(int[] ordinals) {
+        ProductBasket basket = new ProductBasket(this, ordinals);
+        ProductBasket interned = internedBaskets.get(basket);
+        if (interned != null) {
+            return interned;
+        }
+        if (internedBaskets.size() >= MAX_INTERNED_BASKETS) {
+            return basket;
+        }
+        interned = internedBaskets.putIfAbsent(basket, basket);
+        return interned != null ? interned : basket;
     }
 
     public Product addProduct(Product newProduct) {
-        products.add(newProduct);
+        productsById.put(newProduct.id(), newProduct);
+        getOrdinal(newProduct);
         return newProduct;
     }
 
     public void removeProduct(String id) {
-        for (Product product : products) {
-            if (product.id().equals(id)) {
-                products.remove(product);
-                return;
-            }
+        productsById.remove(id);
+    }
+
+    /**
+     * Returns the stable ordinal of the product, registering the product if it was never seen.
+     * A product that reuses an id under a new name gets a new ordinal, so existing baskets keep the old one.
+     * Registering does not add the product to the catalogue.
+     */
+    public int getOrdinal(Product product) {
+        Integer ordinal = ordinalsByProduct.get(product);
+        return ordinal != null ? ordinal : register(product);
+    }
+
+    public Product getProductByOrdinal(int ordinal) {
+        Product[] products = productsByOrdinal;
+        if (ordinal < 0 || ordinal >= products.length || products[ordinal] == null) {
+            throw new IndexOutOfBoundsException("Unknown product ordinal: " + ordinal);
+        }
+        return products[ordinal];
+    }
+
+    // equality and toString cover the catalogue only, like the list this repository used to wrap
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ProductRepo other && getProducts().equals(other.getProducts());
+    }
+
+    @Override
+    public int hashCode() {
+        return getProducts().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ProductRepo(products=" + getProducts() + ")";
+    }
+
+    private synchronized int register(Product product) {
+        Integer existing = ordinalsByProduct.get(product);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = registeredCount++;
+        Product[] products = productsByOrdinal;
+        if (ordinal == products.length) {
+            products = Arrays.copyOf(products, products.length * 2);
         }
+        products[ordinal] = product;
+        productsByOrdinal = products;
+        ordinalsByProduct.put(product, ordinal);
+        return ordinal;
     }
 }
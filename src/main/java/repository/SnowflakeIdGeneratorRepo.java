@@ -0,0 +1,113 @@
+package repository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered, k-sortable ids in the Snowflake layout: 41 bits of milliseconds since 2025-01-01,
+ * 10 bits of node id and a 12 bit per-millisecond sequence. The 64 bit value is written as 13 fixed-width
+ * Crockford base32 characters, so ids sort lexicographically in generation order.
+ * Generation is a lock-free CAS on a single {@link AtomicLong} and never touches {@code SecureRandom}.
+ */
+public class SnowflakeIdGeneratorRepo implements IdGeneratorRepository {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int ID_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final Clock clock;
+    // last issued (timestamp << SEQUENCE_BITS | sequence); a sequence overflow simply rolls into the next millisecond
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeIdGeneratorRepo(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    public SnowflakeIdGeneratorRepo(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + " but was " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public String generateId() {
+        return encode(nextValue());
+    }
+
+    // Reserves the whole block with a single CAS instead of one per id.
+    @Override
+    public List<String> generateIds(int count) {
+        long first = reserve(count);
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(encode(toValue(first + i)));
+        }
+        return ids;
+    }
+
+    long nextValue() {
+        return toValue(reserve(1));
+    }
+
+    // Returns the first of count consecutive states.
+    private long reserve(int count) {
+        long now = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state;
+        long first;
+        do {
+            state = lastState.get();
+            // never go backwards, even if the wall clock does
+            first = Math.max(state + 1, now);
+        } while (!lastState.compareAndSet(state, first + count - 1));
+        return first;
+    }
+
+    private long toValue(long state) {
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return timestamp << (NODE_BITS + SEQUENCE_BITS) | nodeBits | sequence;
+    }
+
+    static String encode(long value) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the creation time encoded in an id produced by this generator.
+     */
+    public static Instant timestampOf(String id) {
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int digit = indexOf(id.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a snowflake id: " + id);
+            }
+            value = value << 5 | digit;
+        }
+        return Instant.ofEpochMilli((value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,51 @@
+package repository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention-free ids of the form {@code <generator>-<thread>-<sequence>}, all in base 36.
+ * Each thread claims a slot number once and then only increments its own counter.
+ * The generator part is {@code <creation millis>.<node id>.<random instance>}: the node id keeps processes on
+ * different nodes apart, and the random 32 bit instance number keeps apart generators created in the same
+ * millisecond on the same node, such as two of them in one process or a restart within one millisecond.
+ * Ids are unique but only ordered within one thread.
+ */
+public class ThreadLocalSequenceIdGeneratorRepo implements IdGeneratorRepository {
+
+    private final String generatorPrefix;
+    private final AtomicInteger nextThreadSlot = new AtomicInteger();
+    private final ThreadLocal<Sequence> sequences = ThreadLocal.withInitial(this::newSequence);
+
+    public ThreadLocalSequenceIdGeneratorRepo() {
+        this(0);
+    }
+
+    public ThreadLocalSequenceIdGeneratorRepo(int nodeId) {
+        if (nodeId < 0 || nodeId > SnowflakeIdGeneratorRepo.MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + SnowflakeIdGeneratorRepo.MAX_NODE_ID + " but was " + nodeId);
+        }
+        this.generatorPrefix = Long.toString(System.currentTimeMillis(), 36)
+                + "." + Integer.toString(nodeId, 36)
+                + "." + Integer.toUnsignedString(ThreadLocalRandom.current().nextInt(), 36);
+    }
+
+    @Override
+    public String generateId() {
+        Sequence sequence = sequences.get();
+        return sequence.prefix + Long.toString(sequence.next++, 36);
+    }
+
+    private Sequence newSequence() {
+        return new Sequence(generatorPrefix + "-" + Integer.toString(nextThreadSlot.getAndIncrement(), 36) + "-");
+    }
+
+    private static final class Sequence {
+        private final String prefix;
+        private long next;
+
+        private Sequence(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package server;
+
+import metrics.LatencyHistogram;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load client for {@link OrderIntakeServer}. Every connection runs on its own virtual thread and sends
+ * {@code addOrder} and {@code setStatus} commands back to back, waiting for each answer, so latency is measured per
+ * request from send to response.
+ */
+public class IntakeLoadGenerator {
+
+    private final String host;
+    private final int port;
+    private final int productCount;
+
+    public IntakeLoadGenerator(String host, int port, int productCount) {
+        this.host = host;
+        this.port = port;
+        this.productCount = productCount;
+    }
+
+    public record Result(long requests, long errors, long elapsedNanos, LatencyHistogram.Snapshot latencies) {
+        public double requestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d errors, %.0f req/s, p50 %d us, p99 %d us, p99.9 %d us, max %d us",
+                    requests, errors, requestsPerSecond(),
+                    TimeUnit.NANOSECONDS.toMicros(latencies.valueAtPercentile(50)),
+                    TimeUnit.NANOSECONDS.toMicros(latencies.valueAtPercentile(99)),
+                    TimeUnit.NANOSECONDS.toMicros(latencies.valueAtPercentile(99.9)),
+                    TimeUnit.NANOSECONDS.toMicros(latencies.max()));
+        }
+    }
+
+    /**
+     * Opens {@code connections} connections that each place {@code ordersPerConnection} orders and, after every
+     * second order, move the previous one to IN_DELIVERY.
+     */
+    public Result run(int connections, int ordersPerConnection) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(connections);
+            for (int c = 0; c < connections; c++) {
+                int client = c;
+                futures.add(clients.submit(() -> {
+                    runClient(client, ordersPerConnection, latencies, requests, errors);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Load client failed", e.getCause());
+                }
+            }
+        }
+        return new Result(requests.sum(), errors.sum(), System.nanoTime() - start, latencies.snapshot());
+    }
+
+    private void runClient(int client, int orders, LatencyHistogram latencies, LongAdder requests, LongAdder errors) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            for (int i = 0; i < orders; i++) {
+                String name = "C" + client + "-" + i;
+                send("addOrder " + name + " " + (1 + i % productCount) + " " + (1 + (i * 7) % productCount), in, out, latencies, requests, errors);
+                if (i % 2 == 1) {
+                    send("setStatus C" + client + "-" + (i - 1) + " IN_DELIVERY", in, out, latencies, requests, errors);
+                }
+            }
+        }
+    }
+
+    private static void send(String command, BufferedReader in, Writer out, LatencyHistogram latencies, LongAdder requests, LongAdder errors) throws IOException {
+        long start = System.nanoTime();
+        out.write(command);
+        out.write('\n');
+        out.flush();
+        String response = in.readLine();
+        latencies.record(System.nanoTime() - start);
+        requests.increment();
+        if (response == null) {
+            throw new EOFException("Server closed the connection");
+        }
+        if (!response.startsWith("OK")) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Arguments: [port] [connections] [ordersPerConnection] [productCount], defaulting to 7070, 100, 1000 and 100.
+     * With port 0 an in-process server is started, so one command measures the whole round trip on this machine.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int ordersPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int productCount = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        OrderIntakeServer embedded = null;
+        if (port == 0) {
+            embedded = new OrderIntakeServer(OrderIntakeServer.demoShopService(productCount), 256);
+            embedded.start(0);
+            port = embedded.getPort();
+        }
+        try {
+            IntakeLoadGenerator generator = new IntakeLoadGenerator(InetAddress.getLoopbackAddress().getHostAddress(), port, productCount);
+            // short warm-up so the JIT has compiled the hot paths before measuring
+            generator.run(Math.min(connections, 10), 200);
+            System.out.println(generator.run(connections, ordersPerConnection));
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package server;
+
+import enums.Commands;
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import output.NullOutputSink;
+import repository.ConcurrentOrderRepo;
+import repository.ProductRepo;
+import repository.SnowflakeIdGeneratorRepo;
+import service.CommandLineParser;
+import service.ShopService;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Accepts {@code addOrder} and {@code setStatus} commands in the transactions file syntax over TCP, one command per line,
+ * and answers every line with {@code OK <orderId>} or {@code OK <orderId> <status>}, or {@code ERR <message>}.
+ * <p>
+ * Every connection is served by its own virtual thread, so thousands of mostly idle clients cost little. At most
+ * {@code maxInFlight} commands execute at the same time; further connections wait for a permit before reading
+ * on, which leaves their requests in the socket buffers and slows the clients down instead of queueing work here.
+ * Order names are shared by all connections. The {@link ShopService} must run on a thread-safe order repository.
+ */
+public class OrderIntakeServer implements Closeable {
+
+    private final ShopService shopService;
+    private final Semaphore inFlight;
+    private final Map<String, Order> ordersByName = new ConcurrentHashMap<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocket serverSocket;
+
+    public OrderIntakeServer(ShopService shopService, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1 but was " + maxInFlight);
+        }
+        this.shopService = shopService;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Binds to the loopback interface and starts accepting connections. Port 0 picks a free port, see {@link #getPort()}.
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        threads.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        threads.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                threads.execute(() -> serve(connection));
+            } catch (IOException e) {
+                // server socket closed
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        CommandLineParser parser = new CommandLineParser();
+        try (connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!parser.parse(line)) {
+                    continue;
+                }
+                out.write(handle(parser));
+                out.write('\n');
+                // pipelined requests are answered with a single write
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // client went away or server is closing
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    private String handle(CommandLineParser parser) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return execute(parser);
+        } catch (Throwable e) {
+            // Catch both Exception and Error (like NoSuchFieldError)
+            return "ERR " + e.getMessage();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private String execute(CommandLineParser parser) {
+        Commands command = parser.command();
+        if (command == null) {
+            return "ERR Invalid command: " + parser.token(0);
+        }
+        return switch (command) {
+            case ADD_ORDER -> addOrder(parser);
+            case SET_STATUS -> setStatus(parser);
+            case PRINT_ORDERS -> "ERR printOrders is not supported by the intake server";
+        };
+    }
+
+    private String addOrder(CommandLineParser parser) {
+        // Format: addOrder A 1 2 3
+        if (parser.tokenCount() < 3) {
+            return "ERR addOrder requires at least: orderName and one product";
+        }
+        Order order = shopService.addOrder(parser.tokensFrom(2));
+        ordersByName.put(parser.token(1), order);
+        return "OK " + order.id();
+    }
+
+    private String setStatus(CommandLineParser parser) {
+        // Format: setStatus A COMPLETED
+        if (parser.tokenCount() < 3) {
+            return "ERR setStatus requires: orderName and status";
+        }
+        OrderStatus status = parser.orderStatus(2);
+        if (status == null) {
+            return "ERR Invalid status: " + parser.token(2);
+        }
+        Order order = ordersByName.get(parser.token(1));
+        if (order == null) {
+            return "ERR Order with name: " + parser.token(1) + " not found!";
+        }
+        Order updated = shopService.updateOrder(order.id(), status);
+        return "OK " + updated.id() + " " + updated.orderStatus();
+    }
+
+    /**
+     * ShopService on a {@link ConcurrentOrderRepo} with products "1" to "productCount" and no console output.
+     */
+    static ShopService demoShopService(int productCount) {
+        ProductRepo productRepo = new ProductRepo();
+        for (int i = 1; i <= productCount; i++) {
+            productRepo.addProduct(new Product(String.valueOf(i), "Product " + i));
+        }
+        ShopService shopService = new ShopService(productRepo, new ConcurrentOrderRepo(), new SnowflakeIdGeneratorRepo(0));
+        shopService.setOutput(NullOutputSink.INSTANCE);
+        return shopService;
+    }
+
+    /**
+     * Runs a server with products "1" to "100" until the process is stopped.
+     * Arguments: [port] [maxInFlight], defaulting to 7070 and 256.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+
+        OrderIntakeServer server = new OrderIntakeServer(demoShopService(100), maxInFlight);
+        server.start(port);
+        System.out.println("Order intake listening on port " + server.getPort() + " with " + maxInFlight + " commands in flight");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,98 @@
+package service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits a character stream into lines inside one reused buffer, so reading a line allocates nothing.
+ * Like {@link java.io.BufferedReader#readLine()}, a line ends at {@code \n}, {@code \r} or {@code \r\n}.
+ * After {@link #nextLine()} returns true the line is {@code buffer()[lineStart(), lineEnd())},
+ * valid until the next call.
+ */
+public class CommandFileReader implements Closeable {
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private int lineStart;
+    private int lineEnd;
+    private boolean skipLineFeed;
+    private boolean endOfInput;
+
+    public CommandFileReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    public boolean nextLine() throws IOException {
+        int scan = position;
+        while (true) {
+            if (skipLineFeed && scan < limit) {
+                skipLineFeed = false;
+                if (buffer[scan] == '\n') {
+                    scan++;
+                    position = scan;
+                }
+            }
+            for (; scan < limit; scan++) {
+                char c = buffer[scan];
+                if (c == '\n' || c == '\r') {
+                    lineStart = position;
+                    lineEnd = scan;
+                    position = scan + 1;
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+            }
+            if (endOfInput) {
+                if (position == limit) {
+                    return false;
+                }
+                lineStart = position;
+                lineEnd = limit;
+                position = limit;
+                return true;
+            }
+            scan -= position;
+            fill();
+        }
+    }
+
+    public char[] buffer() {
+        return buffer;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    // Moves the unfinished line to the front, grows the buffer if that line fills it, then reads more input.
+    private void fill() throws IOException {
+        int pending = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = 0;
+        limit = pending;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,161 @@
+package service;
+
+import enums.Commands;
+import enums.OrderStatus;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Tokenizer for the transactions file grammar ({@code addOrder A 1 2 3}, {@code setStatus A COMPLETED}, {@code printOrders}).
+ * A parser is reused for every line and is not thread-safe. Parsing works on a char window and does not allocate:
+ * tokens are kept as offsets, commands and statuses are resolved by table lookup, and order names and product ids
+ * are handed out from a small cache of previously seen strings, so repeated ids cost no new String.
+ */
+public class CommandLineParser {
+
+    private static final int INTERN_CACHE_SIZE = 1 << 14;
+
+    private char[] ownBuffer = new char[256];
+    private char[] chars = ownBuffer;
+    private int lineStart;
+    private int lineEnd;
+
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
+
+    private final String[] internCache = new String[INTERN_CACHE_SIZE];
+    private final TokenList tokenList = new TokenList();
+
+    /**
+     * Parses {@code chars[start, end)}. The array is referenced, not copied, until the next call.
+     * Returns false if the line holds no tokens.
+     */
+    public boolean parse(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.lineStart = start;
+        this.lineEnd = end;
+        tokenCount = 0;
+
+        int i = start;
+        while (i < end) {
+            while (i < end && chars[i] == ' ') {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int tokenStart = i;
+            while (i < end && chars[i] != ' ') {
+                i++;
+            }
+            addToken(tokenStart, i);
+        }
+        return tokenCount > 0;
+    }
+
+    /**
+     * Parses a line held in another {@link CharSequence}, copying it into the parser's own buffer.
+     */
+    public boolean parse(CharSequence line) {
+        if (ownBuffer.length < line.length()) {
+            ownBuffer = new char[line.length()];
+        }
+        for (int i = 0; i < line.length(); i++) {
+            ownBuffer[i] = line.charAt(i);
+        }
+        return parse(ownBuffer, 0, line.length());
+    }
+
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+    public Commands command() {
+        return tokenCount == 0 ? null : Commands.fromChars(chars, tokenStarts[0], tokenEnds[0]);
+    }
+
+    public OrderStatus orderStatus(int index) {
+        return OrderStatus.fromChars(chars, tokenStarts[index], tokenEnds[index]);
+    }
+
+    /**
+     * Returns the token as a String, reusing a cached instance when the same token was seen recently.
+     */
+    public String token(int index) {
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+        int hash = tokenHash(index);
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_CACHE_SIZE - 1);
+        String cached = internCache[slot];
+        if (cached != null && contentEquals(cached, start, end)) {
+            return cached;
+        }
+        String token = new String(chars, start, end - start);
+        internCache[slot] = token;
+        return token;
+    }
+
+    /**
+     * Same value as {@code token(index).hashCode()}, without creating the String.
+     */
+    public int tokenHash(int index) {
+        int hash = 0;
+        for (int i = tokenStarts[index]; i < tokenEnds[index]; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the tokens from {@code fromIndex} on as a list view that is only valid until the next parse.
+     */
+    public List<String> tokensFrom(int fromIndex) {
+        tokenList.fromIndex = fromIndex;
+        return tokenList;
+    }
+
+    // Rebuilds the line text, only meant for error messages.
+    public String line() {
+        return new String(chars, lineStart, lineEnd - lineStart);
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+        }
+        tokenStarts[tokenCount] = start;
+        tokenEnds[tokenCount] = end;
+        tokenCount++;
+    }
+
+    private boolean contentEquals(String candidate, int start, int end) {
+        if (candidate.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class TokenList extends AbstractList<String> implements RandomAccess {
+        private int fromIndex;
+
+        @Override
+        public String get(int index) {
+            return token(fromIndex + index);
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, tokenCount - fromIndex);
+        }
+    }
+}
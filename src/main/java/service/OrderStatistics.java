@@ -0,0 +1,83 @@
+package service;
+
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters over all orders placed and updated through {@link ShopService}: orders per status, units per
+ * product and status, and status transitions. Writers only bump striped {@link LongAdder}s, so concurrent
+ * updates do not contend on one field, and every read is a lookup plus a sum that can run at any time.
+ * A read taken while writes are running may see an update half applied, e.g. the order already counted in
+ * its new status but not yet removed from the old one.
+ */
+public class OrderStatistics {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final LongAdder[] ordersByStatus = newCounters(STATUSES.length);
+    // product id -> units per status
+    private final Map<String, LongAdder[]> unitsByProduct = new ConcurrentHashMap<>();
+    // [from][to]
+    private final LongAdder[][] transitions = new LongAdder[STATUSES.length][];
+
+    public OrderStatistics() {
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = newCounters(STATUSES.length);
+        }
+    }
+
+    public void orderAdded(Order order) {
+        int status = order.orderStatus().ordinal();
+        ordersByStatus[status].increment();
+        for (Product product : order.products()) {
+            unitsOf(product.id())[status].increment();
+        }
+    }
+
+    public void orderUpdated(Order previous, Order updated) {
+        int from = previous.orderStatus().ordinal();
+        int to = updated.orderStatus().ordinal();
+        transitions[from][to].increment();
+        if (from == to) {
+            return;
+        }
+        ordersByStatus[to].increment();
+        ordersByStatus[from].decrement();
+        for (Product product : updated.products()) {
+            LongAdder[] units = unitsOf(product.id());
+            units[to].increment();
+            units[from].decrement();
+        }
+    }
+
+    public long getOrderCount(OrderStatus orderStatus) {
+        return ordersByStatus[orderStatus.ordinal()].sum();
+    }
+
+    public long getUnitCount(String productId, OrderStatus orderStatus) {
+        LongAdder[] units = unitsByProduct.get(productId);
+        return units == null ? 0 : units[orderStatus.ordinal()].sum();
+    }
+
+    public long getTransitionCount(OrderStatus from, OrderStatus to) {
+        return transitions[from.ordinal()][to.ordinal()].sum();
+    }
+
+    private LongAdder[] unitsOf(String productId) {
+        LongAdder[] units = unitsByProduct.get(productId);
+        return units != null ? units : unitsByProduct.computeIfAbsent(productId, id -> newCounters(STATUSES.length));
+    }
+
+    private static LongAdder[] newCounters(int count) {
+        LongAdder[] counters = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,146 @@
+package service;
+
+import enums.Commands;
+import model.Order;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a command file on several worker threads.
+ * Lines are sharded by order name, so all commands for one name run on the same worker in file order,
+ * while different names run in parallel. A {@code printOrders} line is a barrier: every shard first
+ * finishes the lines before it, then the orders of all shards are printed.
+ * The {@link ShopService} must be backed by a thread-safe {@link repository.OrderRepo}.
+ */
+public class ParallelCommandReplayer {
+
+    private static final int BATCH_SIZE = 256;
+    private static final int MAX_IN_FLIGHT_BATCHES_PER_SHARD = 64;
+
+    private final ShopService shopService;
+    private final int shardCount;
+
+    public ParallelCommandReplayer(ShopService shopService, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1 but was " + shardCount);
+        }
+        this.shopService = shopService;
+        this.shardCount = shardCount;
+    }
+
+    public void processCommandsFromFile(Path filePath) throws IOException {
+        List<Shard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard());
+        }
+
+        CommandLineParser barrierParser = new CommandLineParser();
+        // tokenizes on the reader thread with the same rules the workers use, so routing and execution agree on the name
+        CommandLineParser routingParser = new CommandLineParser();
+
+        try (BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                routingParser.parse(line);
+                if (routingParser.command() == Commands.PRINT_ORDERS) {
+                    awaitAll(shards);
+                    shopService.processLineSafely(barrierParser, line, mergeOrdersByName(shards));
+                } else {
+                    shards.get(shardOf(routingParser)).add(line);
+                }
+            }
+            awaitAll(shards);
+            shopService.getOutput().flush();
+        } catch (IOException e) {
+            shopService.getOutput().printError("Could not read file: " + e.getMessage());
+            throw new IOException(e);
+        } finally {
+            for (Shard shard : shards) {
+                shard.worker.shutdownNow();
+            }
+        }
+    }
+
+    // Lines without an order name (empty or malformed) all go to shard 0 and just report their error there.
+    private int shardOf(CommandLineParser parsedLine) {
+        return parsedLine.tokenCount() < 2 ? 0 : Math.floorMod(parsedLine.tokenHash(1), shardCount);
+    }
+
+    private void awaitAll(List<Shard> shards) {
+        for (Shard shard : shards) {
+            shard.flush();
+        }
+        for (Shard shard : shards) {
+            shard.awaitCompletion();
+        }
+    }
+
+    private Map<String, Order> mergeOrdersByName(List<Shard> shards) {
+        Map<String, Order> ordersByName = new HashMap<>();
+        for (Shard shard : shards) {
+            ordersByName.putAll(shard.ordersByName);
+        }
+        return ordersByName;
+    }
+
+    private class Shard {
+        // ordersByName and parser are only touched by the worker thread, and by the reader thread after awaitCompletion
+        private final Map<String, Order> ordersByName = new HashMap<>();
+        private final CommandLineParser parser = new CommandLineParser();
+        private final ExecutorService worker = Executors.newSingleThreadExecutor();
+        private final Deque<Future<?>> inFlight = new ArrayDeque<>();
+        private List<String> pending = new ArrayList<>(BATCH_SIZE);
+
+        void add(String line) {
+            pending.add(line);
+            if (pending.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> batch = pending;
+            pending = new ArrayList<>(BATCH_SIZE);
+            // bound the queued work so a fast reader cannot pull the whole file into memory
+            if (inFlight.size() == MAX_IN_FLIGHT_BATCHES_PER_SHARD) {
+                await(inFlight.removeFirst());
+            }
+            inFlight.addLast(worker.submit(() -> {
+                for (String line : batch) {
+                    shopService.processLineSafely(parser, line, ordersByName);
+                }
+            }));
+        }
+
+        void awaitCompletion() {
+            // the worker runs batches in submission order, so the last one finishing means all have
+            if (!inFlight.isEmpty()) {
+                await(inFlight.getLast());
+                inFlight.clear();
+            }
+        }
+
+        private void await(Future<?> future) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for replay worker", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Replay worker failed", e.getCause());
+            }
+        }
+    }
+}
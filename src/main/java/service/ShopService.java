@@ -1,148 +1,469 @@
 package service;
 
 import enums.Commands;
+import enums.Operation;
 import enums.OrderStatus;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import metrics.NoOpShopMetrics;
+import metrics.ShopMetrics;
+import output.ConsoleOutputSink;
+import output.OutputSink;
 import model.Order;
+import model.OrderPage;
 import model.Product;
+import model.ReplayProgress;
 import repository.IdGeneratorRepository;
 import repository.OrderRepo;
 import repository.ProductRepo;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-@RequiredArgsConstructor
 @Data
 public class ShopService {
 
     private final ProductRepo productRepo;
     private final OrderRepo orderRepo;
     private final IdGeneratorRepository idGeneratorRepository;
-
+    private final OrderStatistics orderStatistics = new OrderStatistics();
+    // disabled by default; swap in RecordingShopMetrics to measure
+    private ShopMetrics metrics = NoOpShopMetrics.INSTANCE;
+    private OutputSink output = ConsoleOutputSink.INSTANCE;
+
+    static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_CHECK_MASK = 4096 - 1;
+    private static final long PROGRESS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // attempts of updateOrder before it gives up; only reached if other writers keep winning every race
+    private static final int MAX_UPDATE_ATTEMPTS = 1_000;
+
+    // the repo may already hold orders (recovered, restored or imported), which the statistics have to start from
+    public ShopService(ProductRepo productRepo, OrderRepo orderRepo, IdGeneratorRepository idGeneratorRepository) {
+        this.productRepo = productRepo;
+        this.orderRepo = orderRepo;
+        this.idGeneratorRepository = idGeneratorRepository;
+        orderRepo.forEachOrder(order -> true, orderStatistics::orderAdded);
+    }
 
     public Order addOrder(List<String> productIds) {
-        List<Product> products = new ArrayList<>();
-        for (String productId : productIds) {
-            var productOpt = productRepo.getProductById(productId);
-            if (productOpt.isEmpty()) {
-                System.out.println("model.Product mit der Id: " + productId + " konnte nicht bestellt werden!");
-                throw new NoSuchFieldError("Product with id: " + productId + " could not be ordered. Product not found.");
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order added = placeOrder(productIds);
+            success = true;
+            return added;
+        } finally {
+            metrics.record(Operation.ADD_ORDER, start, success);
+        }
+    }
+
+    private Order placeOrder(List<String> productIds) {
+        var productsOpt = lookupBasket(productIds);
+        if (productsOpt.isEmpty()) {
+            String productId = findUnknownProductId(productIds);
+            output.println("model.Product mit der Id: " + productId + " konnte nicht bestellt werden!");
+            throw new NoSuchFieldError("Product with id: " + productId + " could not be ordered. Product not found.");
+        }
+
+        Order newOrder = new Order(idGeneratorRepository.generateId(), productsOpt.get(), OrderStatus.PROCESSING, ZonedDateTime.now());
+
+        Order added = orderRepo.addOrder(newOrder);
+        orderStatistics.orderAdded(added);
+        return added;
+    }
+
+    /**
+     * Places one order per basket. Every distinct product id is resolved once for the whole batch and all ids are
+     * reserved in one block; if any product is unknown nothing is stored.
+     */
+    public List<Order> addOrders(List<List<String>> productIdsPerOrder) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> added = placeOrders(productIdsPerOrder);
+            success = true;
+            return added;
+        } finally {
+            metrics.record(Operation.ADD_ORDERS, start, success);
+        }
+    }
+
+    private List<Order> placeOrders(List<List<String>> productIdsPerOrder) {
+        Set<String> distinctIds = new LinkedHashSet<>();
+        for (List<String> productIds : productIdsPerOrder) {
+            distinctIds.addAll(productIds);
+        }
+        List<String> idsToResolve = new ArrayList<>(distinctIds);
+        var productsOpt = lookupProducts(idsToResolve);
+        if (productsOpt.isEmpty()) {
+            String productId = findUnknownProductId(idsToResolve);
+            output.println("model.Product mit der Id: " + productId + " konnte nicht bestellt werden!");
+            throw new NoSuchFieldError("Product with id: " + productId + " could not be ordered. Product not found.");
+        }
+        Map<String, Integer> ordinalsById = new HashMap<>();
+        List<Product> products = productsOpt.get();
+        for (int i = 0; i < products.size(); i++) {
+            ordinalsById.put(idsToResolve.get(i), productRepo.getOrdinal(products.get(i)));
+        }
+
+        List<String> orderIds = idGeneratorRepository.generateIds(productIdsPerOrder.size());
+        ZonedDateTime orderedAt = ZonedDateTime.now();
+        List<Order> newOrders = new ArrayList<>(productIdsPerOrder.size());
+        for (int i = 0; i < productIdsPerOrder.size(); i++) {
+            List<String> productIds = productIdsPerOrder.get(i);
+            int[] ordinals = new int[productIds.size()];
+            for (int j = 0; j < ordinals.length; j++) {
+                ordinals[j] = ordinalsById.get(productIds.get(j));
             }
-            products.add(productOpt.get());
+            newOrders.add(new Order(orderIds.get(i), productRepo.basketOf(ordinals), OrderStatus.PROCESSING, orderedAt));
         }
 
-        Order newOrder = new Order(idGeneratorRepository.generateId(), products, OrderStatus.PROCESSING, ZonedDateTime.now());
+        List<Order> added = orderRepo.addOrders(newOrders);
+        for (Order order : added) {
+            orderStatistics.orderAdded(order);
+        }
+        return added;
+    }
 
-        return orderRepo.addOrder(newOrder);
+    private Optional<List<Product>> lookupBasket(List<String> productIds) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            var productsOpt = productRepo.getBasketByIds(productIds);
+            success = true;
+            return productsOpt;
+        } finally {
+            metrics.record(Operation.PRODUCT_LOOKUP, start, success);
+        }
+    }
+
+    private Optional<List<Product>> lookupProducts(List<String> productIds) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            var productsOpt = productRepo.getProductsByIds(productIds);
+            success = true;
+            return productsOpt;
+        } finally {
+            metrics.record(Operation.PRODUCT_LOOKUP, start, success);
+        }
+    }
+
+    private String findUnknownProductId(List<String> productIds) {
+        for (String productId : productIds) {
+            if (productRepo.getProductById(productId).isEmpty()) {
+                return productId;
+            }
+        }
+        return null;
     }
 
     public List<Order> getOrders() {
-        return orderRepo.getOrders();
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> orders = orderRepo.getOrders();
+            success = true;
+            return orders;
+        } finally {
+            metrics.record(Operation.GET_ORDERS, start, success);
+        }
+    }
+
+    /**
+     * Lazily walks all orders without copying the repository, see {@link OrderRepo#streamOrders()}.
+     */
+    public Stream<Order> streamOrders() {
+        return orderRepo.streamOrders();
     }
 
+    public void forEachOrder(Predicate<? super Order> filter, Consumer<? super Order> action) {
+        orderRepo.forEachOrder(filter, action);
+    }
+
+    /**
+     * Sets the status if the order may move there from its current one, see {@link OrderStatus#canTransitionTo}.
+     * Runs as an optimistic read and compare-and-set loop, so racing updates of one order need no lock and both the
+     * transition check and the statistics always see the exact order that is replaced.
+     */
     public Order updateOrder(String orderId, OrderStatus orderStatus) {
-        var updatedOpt = orderRepo.updateOrder(orderId, orderStatus);
-        if (updatedOpt.isEmpty()) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order updated = changeStatus(orderId, current -> orderStatus, MAX_UPDATE_ATTEMPTS);
+            success = true;
+            return updated;
+        } finally {
+            metrics.record(Operation.UPDATE_ORDER, start, success);
+        }
+    }
+
+    /**
+     * Reads the order, derives the new status from it and writes it back with a compare-and-set,
+     * starting over with a fresh read whenever another writer got there first.
+     *
+     * @throws ConcurrentModificationException if all {@code maxAttempts} attempts lost a race
+     * @throws IllegalArgumentException        if the order does not exist or the repository refuses to update it
+     */
+    public Order updateOrderWithRetry(String orderId, Function<? super Order, OrderStatus> nextStatus, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1 but was " + maxAttempts);
+        }
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order updated = changeStatus(orderId, nextStatus, maxAttempts);
+            success = true;
+            return updated;
+        } finally {
+            metrics.record(Operation.UPDATE_ORDER, start, success);
+        }
+    }
+
+    /**
+     * Updates the order only if it is still at {@code expectedVersion}.
+     *
+     * @throws ConcurrentModificationException if the order is at another version
+     */
+    public Order compareAndUpdateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Order updated = compareAndSetStatus(orderId, expectedVersion, orderStatus);
+            success = true;
+            return updated;
+        } finally {
+            metrics.record(Operation.COMPARE_AND_UPDATE_ORDER, start, success);
+        }
+    }
+
+    private Order changeStatus(String orderId, Function<? super Order, OrderStatus> nextStatus, int maxAttempts) {
+        Order current = orderRepo.getOrderById(orderId);
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (current == null) {
+                throw new IllegalArgumentException("Order with id: " + orderId + " not found.");
+            }
+            OrderStatus next = nextStatus.apply(current);
+            checkTransition(current, next);
+            var updatedOpt = orderRepo.updateOrder(orderId, current.version(), next);
+            if (updatedOpt.isPresent()) {
+                orderStatistics.orderUpdated(current, updatedOpt.get());
+                return updatedOpt.get();
+            }
+            // only a newer version means another writer won; an unchanged one means the repo will never take the update
+            Order reread = orderRepo.getOrderById(orderId);
+            if (reread != null && reread.version() == current.version()) {
+                throw notUpdatable(orderId);
+            }
+            current = reread;
+        }
+        throw new ConcurrentModificationException("Order with id: " + orderId + " was changed concurrently in all " + maxAttempts + " attempts.");
+    }
+
+    private Order compareAndSetStatus(String orderId, long expectedVersion, OrderStatus orderStatus) {
+        Order current = orderRepo.getOrderById(orderId);
+        if (current != null && current.version() == expectedVersion) {
+            checkTransition(current, orderStatus);
+            var updatedOpt = orderRepo.updateOrder(orderId, expectedVersion, orderStatus);
+            if (updatedOpt.isPresent()) {
+                orderStatistics.orderUpdated(current, updatedOpt.get());
+                return updatedOpt.get();
+            }
+            Order reread = orderRepo.getOrderById(orderId);
+            if (reread != null && reread.version() == expectedVersion) {
+                throw notUpdatable(orderId);
+            }
+            current = reread;
+        }
+        if (current == null) {
             throw new IllegalArgumentException("Order with id: " + orderId + " not found.");
         }
-        return updatedOpt.get();
+        throw new ConcurrentModificationException("Order with id: " + orderId + " is at version " + current.version() + ", expected " + expectedVersion + ".");
+    }
+
+    private static IllegalArgumentException notUpdatable(String orderId) {
+        return new IllegalArgumentException("Order with id: " + orderId + " can not be updated.");
+    }
+
+    private static void checkTransition(Order current, OrderStatus next) {
+        if (!current.orderStatus().canTransitionTo(next)) {
+            throw new IllegalArgumentException("Order with id: " + current.id() + " can not change from " + current.orderStatus() + " to " + next + ".");
+        }
     }
 
     public List<Order> getOrdersByOrderStatus(OrderStatus orderStatus) {
-        return orderRepo.getOrders().stream().filter(o -> o.orderStatus().equals(orderStatus)).toList();
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            List<Order> orders = orderRepo.getOrdersByOrderStatus(orderStatus);
+            success = true;
+            return orders;
+        } finally {
+            metrics.record(Operation.GET_ORDERS_BY_STATUS, start, success);
+        }
+    }
+
+    /**
+     * Keyset-paginated listing of all orders, oldest first. Pass null for the first page and the returned
+     * {@link OrderPage#nextCursor()} for the following ones.
+     */
+    public OrderPage getOrderPage(String cursor, int limit) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            OrderPage page = orderRepo.getOrderPage(cursor, limit);
+            success = true;
+            return page;
+        } finally {
+            metrics.record(Operation.GET_ORDER_PAGE, start, success);
+        }
+    }
+
+    public OrderPage getOrderPageByOrderStatus(OrderStatus orderStatus, String cursor, int limit) {
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            OrderPage page = orderRepo.getOrderPageByOrderStatus(orderStatus, cursor, limit);
+            success = true;
+            return page;
+        } finally {
+            metrics.record(Operation.GET_ORDER_PAGE, start, success);
+        }
     }
 
     public Map<OrderStatus, Order> getOldestOrderPerStatus() {
-        Map<OrderStatus, Order> oldestOrderPerStatus = new HashMap<>();
-        for (OrderStatus orderStatus : OrderStatus.values()) {
-            List<Order> ordersOfStatus = getOrdersByOrderStatus(orderStatus);
-            Order oldestOrder = ordersOfStatus.stream().sorted(Comparator.comparing(Order::orderedAt)).findFirst().orElse(null);
-            oldestOrderPerStatus.put(orderStatus, oldestOrder);
+        long start = metrics.startNanos();
+        boolean success = false;
+        try {
+            Map<OrderStatus, Order> oldestOrderPerStatus = new HashMap<>();
+            for (OrderStatus orderStatus : OrderStatus.values()) {
+                oldestOrderPerStatus.put(orderStatus, orderRepo.getOldestOrderByOrderStatus(orderStatus).orElse(null));
+            }
+            success = true;
+            return oldestOrderPerStatus;
+        } finally {
+            metrics.record(Operation.GET_OLDEST_ORDER_PER_STATUS, start, success);
         }
-        return oldestOrderPerStatus;
     }
 
     public void processCommandsFromFile(Path filePath) throws IOException {
+        processCommandsFromFile(filePath, progress -> {
+        });
+    }
+
+    // Streams the file line by line with constant memory, reporting progress about once per second and once at the end.
+    public void processCommandsFromFile(Path filePath, Consumer<ReplayProgress> progressListener) throws IOException {
 
         Map<String, Order> ordersByName = new HashMap<>();
 
-        try {
-            List<String> lines = Files.readAllLines(filePath);
-            for (String line : lines) {
-                try {
-                    processLine(line, ordersByName);
-                } catch (Throwable e) {
-                    // Catch both Exception and Error (like NoSuchFieldError)
-                    System.err.println("Error processing line: " + line);
-                    System.err.println("  Error: " + e.getMessage());
+        CommandLineParser parser = new CommandLineParser();
+
+        try (ByteCountingInputStream in = new ByteCountingInputStream(Files.newInputStream(filePath));
+             CommandFileReader reader = new CommandFileReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            long totalBytes = Files.size(filePath);
+            long startNanos = System.nanoTime();
+            long lastReportNanos = startNanos;
+            long linesProcessed = 0;
+
+            while (reader.nextLine()) {
+                parser.parse(reader.buffer(), reader.lineStart(), reader.lineEnd());
+                processParsedLineSafely(parser, ordersByName);
+                linesProcessed++;
+
+                if ((linesProcessed & PROGRESS_CHECK_MASK) == 0) {
+                    long now = System.nanoTime();
+                    if (now - lastReportNanos >= PROGRESS_REPORT_INTERVAL_NANOS) {
+                        progressListener.accept(new ReplayProgress(linesProcessed, in.getBytesRead(), totalBytes, now - startNanos));
+                        lastReportNanos = now;
+                    }
                 }
             }
+            progressListener.accept(new ReplayProgress(linesProcessed, in.getBytesRead(), totalBytes, System.nanoTime() - startNanos));
+            // a replay is done once its output is
+            output.flush();
         } catch (IOException e) {
-            System.err.println("Could not read file: " + e.getMessage());
+            output.printError("Could not read file: " + e.getMessage());
             throw new IOException(e);
         }
     }
 
-    private void processLine(String line, Map<String, Order> ordersByName) {
-        String[] parts = line.split(" ");
+    void processLineSafely(CommandLineParser parser, CharSequence line, Map<String, Order> ordersByName) {
+        parser.parse(line);
+        processParsedLineSafely(parser, ordersByName);
+    }
 
-        // Early validation
-        if (parts.length == 0) return; // Empty line
+    private void processParsedLineSafely(CommandLineParser parser, Map<String, Order> ordersByName) {
+        long start = metrics.startNanos();
+        try {
+            processLine(parser, ordersByName);
+            metrics.record(Operation.PROCESS_COMMAND_LINE, start, true);
+        } catch (Throwable e) {
+            metrics.record(Operation.PROCESS_COMMAND_LINE, start, false);
+            // Catch both Exception and Error (like NoSuchFieldError)
+            output.printError("Error processing line: " + parser.line());
+            output.printError("  Error: " + e.getMessage());
+        }
+    }
 
-        String commandStr = parts[0];
+    private void processLine(CommandLineParser parser, Map<String, Order> ordersByName) {
+        // Early validation
+        if (parser.tokenCount() == 0) return; // Empty line
 
-        if (!Commands.isValid(commandStr)) {
-            throw new IllegalArgumentException("Invalid command: " + commandStr);
+        // Resolve the enum straight from the parsed token for type-safe switching
+        Commands command = parser.command();
+        if (command == null) {
+            throw new IllegalArgumentException("Invalid command: " + parser.token(0));
         }
 
-        // Convert to enum for type-safe switching
-        Commands command = Commands.fromString(commandStr);
-
         // Use enum in switch - type-safe and no magic strings!
         switch (command) {
-            case ADD_ORDER -> handleAddOrder(parts, ordersByName);
-            case SET_STATUS -> handleSetStatus(parts, ordersByName);
+            case ADD_ORDER -> handleAddOrder(parser, ordersByName);
+            case SET_STATUS -> handleSetStatus(parser, ordersByName);
             case PRINT_ORDERS -> handlePrintOrders(ordersByName);
         }
     }
 
-    private void handleAddOrder(String[] parts, Map<String, Order> ordersByName) {
+    private void handleAddOrder(CommandLineParser parser, Map<String, Order> ordersByName) {
         // Format: addOrder A 1 2 3
-        if (parts.length < 3) {
+        if (parser.tokenCount() < 3) {
             throw new IllegalArgumentException("addOrder requires at least: orderName and one product");
         }
 
         // get orderName
-        String orderName = parts[1];
+        String orderName = parser.token(1);
 
         // get productIds
-        List<String> productIds = List.of(parts).subList(2, parts.length);
+        List<String> productIds = parser.tokensFrom(2);
 
         // create order
         Order order = addOrder(productIds);
 
         // save order to map
         ordersByName.put(orderName, order);
-        System.out.println("Created order " + orderName + " with " + order.id());
+        output.println("Created order " + orderName + " with " + order.id());
     }
 
-    private void handleSetStatus(String[] parts, Map<String, Order> ordersByName) {
+    private void handleSetStatus(CommandLineParser parser, Map<String, Order> ordersByName) {
         // Format: setStatus A COMPLETED
-        if (parts.length < 3) {
+        if (parser.tokenCount() < 3) {
             throw new IllegalArgumentException("setStatus requires: orderName and status");
         }
 
-        String orderName = parts[1];
-        String statusStr = parts[2];
+        String orderName = parser.token(1);
 
         // Check if status is valid
-        if (!OrderStatus.isValid(statusStr)) {
-            throw new IllegalArgumentException("Invalid status: " + statusStr);
+        OrderStatus status = parser.orderStatus(2);
+        if (status == null) {
+            throw new IllegalArgumentException("Invalid status: " + parser.token(2));
         }
 
         Order order = ordersByName.get(orderName);
@@ -150,17 +471,17 @@ public class ShopService {
             throw new NoSuchFieldError("Order with name: " + orderName + " not found!");
         }
 
-        OrderStatus status = OrderStatus.valueOf(statusStr);
-
         // Update order
         updateOrder(order.id(), status);
-        System.out.println("Updated order " + orderName + " to status: " + statusStr);
+        output.println("Updated order " + orderName + " to status: " + status);
     }
 
     private void handlePrintOrders(Map<String, Order> ordersByName) {
-        System.out.println("\nAll orders:");
+        // one block instead of one line per order, so an async sink gets a single entry
+        StringBuilder text = new StringBuilder("\nAll orders:");
         ordersByName.forEach((name, order) ->
-                System.out.println(name + ": " + order)
+                text.append(System.lineSeparator()).append(name).append(": ").append(order)
         );
+        output.println(text.toString());
     }
 }
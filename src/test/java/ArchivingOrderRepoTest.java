@@ -0,0 +1,268 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import repository.ArchivingOrderRepo;
+import repository.OrderArchive;
+import repository.OrderMapRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivingOrderRepoTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00.123456789+01:00[Europe/Berlin]");
+    private static final Duration RETENTION = Duration.ofDays(30);
+
+    @TempDir
+    Path directory;
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel"), new Product("2", "Banane")), OrderStatus.PROCESSING, FIXED_TIME);
+    private final MutableClock clock = new MutableClock(FIXED_TIME.toInstant());
+    private OrderMapRepo hot;
+    private OrderArchive archive;
+    private ArchivingOrderRepo repo;
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hot = new OrderMapRepo();
+        archive = new OrderArchive(directory.resolve("orders.archive"));
+        repo = new ArchivingOrderRepo(hot, archive, clock, RETENTION);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+    }
+
+    @Test
+    void runRetention_shouldKeepCompletedOrder_whenRetentionHasNotPassed() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.updateOrder("1", OrderStatus.COMPLETED);
+        clock.advance(RETENTION.minusSeconds(1));
+
+        //WHEN
+        int moved = repo.runRetention();
+
+        //THEN
+        assertEquals(0, moved);
+        assertNotNull(hot.getOrderById("1"));
+        assertEquals(0, archive.size());
+    }
+
+    @Test
+    void runRetention_shouldMoveOldCompletedOrders_andGetOrderByIdShouldFallThroughToArchive() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.addOrder(newOrder.withId("2").withOrderStatus(OrderStatus.COMPLETED));
+        repo.addOrder(newOrder.withId("3"));
+        repo.updateOrder("1", OrderStatus.COMPLETED);
+        clock.advance(RETENTION.plusSeconds(1));
+
+        //WHEN
+        int moved = repo.runRetention();
+
+        //THEN
+        assertEquals(2, moved);
+        assertEquals(List.of(newOrder.withId("3")), repo.getOrders());
+        assertNull(hot.getOrderById("1"));
+        assertEquals(newOrder.nextVersion(OrderStatus.COMPLETED), repo.getOrderById("1"));
+        assertEquals(newOrder.withId("2").withOrderStatus(OrderStatus.COMPLETED), repo.getOrderById("2"));
+        assertTrue(repo.getOrdersByOrderStatus(OrderStatus.COMPLETED).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repo.updateOrder("1", OrderStatus.PROCESSING));
+        assertThrows(IllegalArgumentException.class, () -> repo.updateOrder("1", 1, OrderStatus.PROCESSING));
+        assertEquals(newOrder.nextVersion(OrderStatus.COMPLETED), repo.getOrderById("1"));
+        assertTrue(repo.updateOrder("999", OrderStatus.PROCESSING).isEmpty());
+    }
+
+    @Test
+    void runRetention_shouldArchiveOrdersCompletedBeforeTheTierWasCreated() {
+        //GIVEN
+        hot.addOrder(newOrder.withOrderStatus(OrderStatus.COMPLETED));
+        hot.addOrder(newOrder.withId("2"));
+        ArchivingOrderRepo restarted = new ArchivingOrderRepo(hot, archive, clock, RETENTION);
+        clock.advance(RETENTION.minusSeconds(1));
+        assertEquals(0, restarted.runRetention());
+        clock.advance(Duration.ofSeconds(2));
+
+        //WHEN
+        int moved = restarted.runRetention();
+
+        //THEN
+        assertEquals(1, moved);
+        assertNull(hot.getOrderById("1"));
+        assertTrue(archive.contains("1"));
+        assertEquals(newOrder.withId("2"), hot.getOrderById("2"));
+    }
+
+    @Test
+    @Timeout(5)
+    void shopServiceUpdateOrder_shouldFailFast_whenOrderIsArchived() {
+        //GIVEN
+        ProductRepo productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        ShopService shopService = new ShopService(productRepo, repo, new StringIdGeneratorRepo());
+        Order order = shopService.addOrder(List.of("1"));
+        shopService.updateOrder(order.id(), OrderStatus.COMPLETED);
+        clock.advance(RETENTION.plusSeconds(1));
+        repo.runRetention();
+
+        //WHEN & THEN
+        assertThrows(IllegalArgumentException.class, () -> shopService.updateOrder(order.id(), OrderStatus.COMPLETED));
+        assertThrows(IllegalArgumentException.class, () -> shopService.compareAndUpdateOrder(order.id(), 1, OrderStatus.COMPLETED));
+        assertEquals(OrderStatus.COMPLETED, repo.getOrderById(order.id()).orderStatus());
+    }
+
+    @Test
+    void runRetention_shouldSkipOrders_thatLeftCompletedOrWereRemoved() {
+        //GIVEN
+        repo.addOrder(newOrder.withOrderStatus(OrderStatus.COMPLETED));
+        repo.addOrder(newOrder.withId("2").withOrderStatus(OrderStatus.COMPLETED));
+        repo.updateOrder("1", OrderStatus.PROCESSING);
+        repo.removeOrder("2");
+        clock.advance(RETENTION.plusSeconds(1));
+
+        //WHEN
+        int moved = repo.runRetention();
+
+        //THEN
+        assertEquals(0, moved);
+        assertEquals(newOrder.withVersion(1), hot.getOrderById("1"));
+    }
+
+    @Test
+    void runRetention_shouldUseLatestCompletionTime_whenOrderWasCompletedAgain() {
+        //GIVEN
+        repo.addOrder(newOrder.withOrderStatus(OrderStatus.COMPLETED));
+        clock.advance(Duration.ofDays(20));
+        repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+        repo.updateOrder("1", OrderStatus.COMPLETED);
+        clock.advance(Duration.ofDays(20));
+
+        //WHEN
+        int movedEarly = repo.runRetention();
+        clock.advance(Duration.ofDays(11));
+        int movedLater = repo.runRetention();
+
+        //THEN
+        assertEquals(0, movedEarly);
+        assertEquals(1, movedLater);
+        assertTrue(archive.contains("1"));
+    }
+
+    @Test
+    void archive_shouldStillFindOrders_afterReopen() throws IOException {
+        //GIVEN
+        for (int i = 0; i < 3000; i++) {
+            repo.addOrder(newOrder.withId("order-" + i).withOrderStatus(OrderStatus.COMPLETED));
+        }
+        clock.advance(RETENTION.plusSeconds(1));
+        repo.runRetention();
+        archive.close();
+
+        //WHEN
+        try (OrderArchive reopened = new OrderArchive(directory.resolve("orders.archive"))) {
+
+            //THEN
+            assertEquals(3000, reopened.size());
+            assertEquals(newOrder.withId("order-1234").withOrderStatus(OrderStatus.COMPLETED), reopened.getOrderById("order-1234"));
+            assertNull(reopened.getOrderById("order-3000"));
+        }
+    }
+
+    @Test
+    void archive_shouldStoreOrdersCompressed() {
+        //GIVEN
+        List<Order> orders = new java.util.ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(newOrder.withId("order-" + i).withOrderStatus(OrderStatus.COMPLETED));
+        }
+
+        //WHEN
+        archive.append(orders);
+
+        //THEN
+        // uncompressed every order takes well over 50 bytes in the binary codec
+        assertTrue(archive.sizeOnDisk() < 1000 * 20, "archive size was " + archive.sizeOnDisk());
+        assertEquals(orders.get(999), archive.getOrderById("order-999"));
+    }
+
+    @Test
+    void archive_shouldCutOffTornBlock_atEndOfFile() throws IOException {
+        //GIVEN
+        Path path = directory.resolve("orders.archive");
+        archive.append(List.of(newOrder));
+        archive.append(List.of(newOrder.withId("2")));
+        long intactSize = archive.sizeOnDisk();
+        archive.close();
+        // simulate a crash in the middle of appending the next block
+        Files.write(path, new byte[]{0, 0, 0, 40, 0, 0, 0, 1, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        //WHEN
+        try (OrderArchive reopened = new OrderArchive(path)) {
+
+            //THEN
+            assertEquals(2, reopened.size());
+            assertEquals(intactSize, reopened.sizeOnDisk());
+            assertEquals(intactSize, Files.size(path));
+        }
+    }
+
+    @Test
+    void archive_shouldThrowIOException_whenBlockBeforeTheTailIsCorrupt() throws IOException {
+        //GIVEN
+        Path path = directory.resolve("orders.archive");
+        archive.append(List.of(newOrder));
+        archive.append(List.of(newOrder.withId("2")));
+        archive.close();
+        byte[] bytes = Files.readAllBytes(path);
+        // flip a byte in the compressed payload of the first block, which is followed by an intact one
+        bytes[14] ^= 0x7F;
+        Files.write(path, bytes);
+
+        //WHEN //THEN
+        assertThrows(IOException.class, () -> new OrderArchive(path));
+        assertEquals(bytes.length, Files.size(path));
+    }
+}
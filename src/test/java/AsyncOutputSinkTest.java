@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+import output.AsyncOutputSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncOutputSinkTest {
+
+    @Test
+    void flush_shouldWriteAllLinesInOrder_acrossBothStreams() {
+        //GIVEN
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream shared = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+
+        //WHEN
+        // tiny buffer, so callers have to wait for the writer again and again
+        try (AsyncOutputSink sink = new AsyncOutputSink(shared, shared, 4, 3)) {
+            for (int i = 0; i < 1000; i++) {
+                if (i % 10 == 0) {
+                    sink.printError("error " + i);
+                } else {
+                    sink.println("line " + i);
+                }
+            }
+            sink.flush();
+
+            //THEN
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                expected.add((i % 10 == 0 ? "error " : "line ") + i);
+            }
+            assertEquals(expected, bytes.toString(StandardCharsets.UTF_8).lines().toList());
+        }
+    }
+
+    @Test
+    void close_shouldWriteBufferedLinesAndRejectNewOnes() {
+        //GIVEN
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+        AsyncOutputSink sink = new AsyncOutputSink(out, out, 1024, 64);
+        sink.println("first");
+        sink.println("second");
+
+        //WHEN
+        sink.close();
+
+        //THEN
+        assertEquals(List.of("first", "second"), bytes.toString(StandardCharsets.UTF_8).lines().toList());
+        assertThrows(IllegalStateException.class, () -> sink.println("too late"));
+    }
+}
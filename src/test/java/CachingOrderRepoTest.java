@@ -0,0 +1,146 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.CachingOrderRepo;
+import repository.OrderMapRepo;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingOrderRepoTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00+01:00[Europe/Berlin]");
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel")), OrderStatus.PROCESSING, FIXED_TIME);
+    private CountingOrderRepo backend;
+    private CachingOrderRepo repo;
+
+    // stands in for a slow backend and counts how often single orders are read from it
+    private static class CountingOrderRepo extends OrderMapRepo {
+        int reads;
+
+        @Override
+        public Order getOrderById(String id) {
+            reads++;
+            return super.getOrderById(id);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        backend = new CountingOrderRepo();
+        repo = new CachingOrderRepo(backend, 2);
+    }
+
+    @Test
+    void getOrderById_shouldReadBackendOnce_andServeRepeatedReadsFromCache() {
+        //GIVEN
+        backend.addOrder(newOrder);
+
+        //WHEN
+        Order first = repo.getOrderById("1");
+        Order second = repo.getOrderById("1");
+
+        //THEN
+        assertEquals(newOrder, first);
+        assertEquals(newOrder, second);
+        assertEquals(1, backend.reads);
+        assertEquals(1, repo.getMissCount());
+        assertEquals(1, repo.getHitCount());
+    }
+
+    @Test
+    void updateOrder_shouldReplaceCachedOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.getOrderById("1");
+
+        //WHEN
+        repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+
+        //THEN
+        assertEquals(OrderStatus.IN_DELIVERY, repo.getOrderById("1").orderStatus());
+        assertEquals(0, backend.reads);
+    }
+
+    @Test
+    void removeOrder_shouldInvalidateCachedOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.removeOrder("1");
+
+        //THEN
+        assertNull(repo.getOrderById("1"));
+        assertEquals(0, repo.getCachedOrderCount());
+    }
+
+    @Test
+    void completedOrders_shouldNotBeCached() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        backend.addOrder(newOrder.withId("2").withOrderStatus(OrderStatus.COMPLETED));
+
+        //WHEN
+        repo.updateOrder("1", OrderStatus.COMPLETED);
+        repo.getOrderById("1");
+        repo.getOrderById("2");
+        repo.getOrderById("2");
+
+        //THEN
+        assertEquals(0, repo.getCachedOrderCount());
+        assertEquals(3, backend.reads);
+        assertEquals(OrderStatus.COMPLETED, repo.getOrderById("1").orderStatus());
+    }
+
+    @Test
+    void cache_shouldEvictLeastRecentlyUsedOrder_whenFull() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.addOrder(newOrder.withId("2"));
+        repo.getOrderById("1");
+
+        //WHEN
+        repo.addOrder(newOrder.withId("3"));
+        repo.getOrderById("1");
+        repo.getOrderById("2");
+
+        //THEN
+        // "2" was evicted by "3", and loading "2" again evicted "3"
+        assertEquals(2, repo.getEvictionCount());
+        assertEquals(2, repo.getCachedOrderCount());
+        assertEquals(1, backend.reads);
+        assertEquals(2, repo.getHitCount());
+    }
+
+    @Test
+    void getOrderById_shouldStillCacheLoadedOrder_whenOtherOrderIsWrittenDuringLoad() {
+        //GIVEN
+        CachingOrderRepo[] caching = new CachingOrderRepo[1];
+        CountingOrderRepo racingBackend = new CountingOrderRepo() {
+            @Override
+            public Order getOrderById(String id) {
+                if (id.equals("1")) {
+                    caching[0].updateOrder("2", OrderStatus.IN_DELIVERY);
+                }
+                return super.getOrderById(id);
+            }
+        };
+        caching[0] = new CachingOrderRepo(racingBackend, 2);
+        racingBackend.addOrder(newOrder);
+        racingBackend.addOrder(newOrder.withId("2"));
+
+        //WHEN
+        caching[0].getOrderById("1");
+        Order cached = caching[0].getOrderById("1");
+
+        //THEN
+        assertEquals(newOrder, cached);
+        assertEquals(1, caching[0].getHitCount());
+    }
+}
@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+import service.CommandFileReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CommandFileReaderTest {
+
+    private List<String> readAll(String content, int bufferSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (CommandFileReader reader = new CommandFileReader(new StringReader(content), bufferSize)) {
+            while (reader.nextLine()) {
+                lines.add(new String(reader.buffer(), reader.lineStart(), reader.lineEnd() - reader.lineStart()));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void nextLine_shouldSplitLikeReadLine() throws IOException {
+        assertEquals(List.of("a", "", "b", "c", "d"), readAll("a\n\nb\r\nc\rd", 64));
+        assertEquals(List.of("a"), readAll("a\n", 64));
+        assertEquals(List.of(), readAll("", 64));
+    }
+
+    @Test
+    void nextLine_shouldHandleLinesAcrossBufferBoundaries() throws IOException {
+        //GIVEN
+        String longLine = "addOrder A 1 2 3 4 5 6 7 8 9";
+
+        //WHEN
+        List<String> lines = readAll(longLine + "\r\n" + longLine + "\r\nx", 4);
+
+        //THEN
+        assertEquals(List.of(longLine, longLine, "x"), lines);
+    }
+}
@@ -0,0 +1,108 @@
+import enums.Commands;
+import enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+import service.CommandLineParser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLineParserTest {
+
+    private final CommandLineParser parser = new CommandLineParser();
+
+    @Test
+    void parse_shouldTokenizeAddOrder() {
+        //WHEN
+        boolean parsed = parser.parse("addOrder A 1 2 3");
+
+        //THEN
+        assertTrue(parsed);
+        assertEquals(5, parser.tokenCount());
+        assertEquals(Commands.ADD_ORDER, parser.command());
+        assertEquals("A", parser.token(1));
+        assertEquals(List.of("1", "2", "3"), parser.tokensFrom(2));
+    }
+
+    @Test
+    void parse_shouldResolveStatus_whenSetStatus() {
+        //WHEN
+        parser.parse("setStatus A IN_DELIVERY");
+
+        //THEN
+        assertEquals(Commands.SET_STATUS, parser.command());
+        assertEquals(OrderStatus.IN_DELIVERY, parser.orderStatus(2));
+    }
+
+    @Test
+    void parse_shouldReturnNullCommandAndStatus_whenUnknown() {
+        //WHEN
+        parser.parse("addOrders A INVALID");
+
+        //THEN
+        assertNull(parser.command());
+        assertNull(parser.orderStatus(2));
+    }
+
+    @Test
+    void parse_shouldReturnFalse_whenLineIsBlank() {
+        assertFalse(parser.parse(""));
+        assertFalse(parser.parse("   "));
+        assertEquals(0, parser.tokenCount());
+        assertNull(parser.command());
+    }
+
+    @Test
+    void parse_shouldSkipRepeatedSpaces() {
+        //WHEN
+        parser.parse("  printOrders   ");
+
+        //THEN
+        assertEquals(1, parser.tokenCount());
+        assertEquals(Commands.PRINT_ORDERS, parser.command());
+        assertEquals("  printOrders   ", parser.line());
+    }
+
+    @Test
+    void parse_shouldOnlyLookAtWindow_whenParsingCharArray() {
+        //GIVEN
+        char[] chars = "xxaddOrder B 7yy".toCharArray();
+
+        //WHEN
+        parser.parse(chars, 2, chars.length - 2);
+
+        //THEN
+        assertEquals(Commands.ADD_ORDER, parser.command());
+        assertEquals(List.of("7"), parser.tokensFrom(2));
+        assertEquals("addOrder B 7", parser.line());
+    }
+
+    @Test
+    void token_shouldReturnSameInstance_whenTokenRepeats() {
+        //GIVEN
+        parser.parse("addOrder A 42");
+        String first = parser.token(2);
+
+        //WHEN
+        parser.parse("addOrder B 42");
+
+        //THEN
+        assertSame(first, parser.token(2));
+    }
+
+    @Test
+    void parse_shouldHandleLinesLongerThanInitialBuffer() {
+        //GIVEN
+        StringBuilder line = new StringBuilder("addOrder A");
+        for (int i = 0; i < 200; i++) {
+            line.append(' ').append(i);
+        }
+
+        //WHEN
+        parser.parse(line);
+
+        //THEN
+        assertEquals(202, parser.tokenCount());
+        assertEquals("199", parser.token(201));
+    }
+}
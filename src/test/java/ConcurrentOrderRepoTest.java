@@ -0,0 +1,259 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.ConcurrentOrderRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentOrderRepoTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00+01:00[Europe/Berlin]");
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 2_000;
+
+    private ConcurrentOrderRepo repo = new ConcurrentOrderRepo();
+    private Order newOrder;
+
+    @BeforeEach
+    void setUp() {
+        Product appleProduct = new Product("1", "Apfel");
+        newOrder = new Order("1", List.of(appleProduct), OrderStatus.PROCESSING, FIXED_TIME);
+    }
+
+    @Test
+    void getOrderById() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        Order actual = repo.getOrderById("1");
+
+        //THEN
+        assertEquals(newOrder, actual);
+    }
+
+    @Test
+    void removeOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.removeOrder("1");
+
+        //THEN
+        assertNull(repo.getOrderById("1"));
+    }
+
+    @Test
+    void updateOrder_whenOrderExists_shouldReturnUpdatedOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        var result = repo.updateOrder("1", OrderStatus.COMPLETED);
+
+        //THEN
+        assertTrue(result.isPresent());
+        assertEquals(OrderStatus.COMPLETED, result.get().orderStatus());
+        assertEquals(OrderStatus.COMPLETED, repo.getOrderById("1").orderStatus());
+    }
+
+    @Test
+    void updateOrder_whenOrderNotExists_shouldReturnEmpty() {
+        assertTrue(repo.updateOrder("999", OrderStatus.COMPLETED).isEmpty());
+        assertNull(repo.getOrderById("999"));
+    }
+
+    @Test
+    void getOrdersByOrderStatus_shouldFollowStatusUpdatesAndRemovals() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.addOrder(newOrder.withId("2"));
+        repo.addOrder(newOrder.withId("3"));
+
+        //WHEN
+        repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+        repo.removeOrder("3");
+
+        //THEN
+        assertEquals(List.of(newOrder.withId("2")), repo.getOrdersByOrderStatus(OrderStatus.PROCESSING));
+        assertEquals(List.of(newOrder.nextVersion(OrderStatus.IN_DELIVERY)), repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY));
+    }
+
+    @Test
+    void getOldestOrderByOrderStatus_shouldReturnOldestAfterRemoval() {
+        //GIVEN
+        repo.addOrder(new Order("newer", newOrder.products(), OrderStatus.PROCESSING, FIXED_TIME.plusSeconds(1)));
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.removeOrder("1");
+
+        //THEN
+        assertEquals("newer", repo.getOldestOrderByOrderStatus(OrderStatus.PROCESSING).orElseThrow().id());
+        assertTrue(repo.getOldestOrderByOrderStatus(OrderStatus.COMPLETED).isEmpty());
+    }
+
+    @Test
+    void addOrder_whenCalledFromManyThreads_shouldNotLoseOrders() throws Exception {
+        //GIVEN
+        ProductRepo productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        ShopService shopService = new ShopService(productRepo, repo, new StringIdGeneratorRepo());
+
+        //WHEN
+        runConcurrently(thread -> {
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                shopService.addOrder(List.of("1"));
+            }
+        });
+
+        //THEN
+        assertEquals(THREADS * ORDERS_PER_THREAD, repo.getOrders().size());
+    }
+
+    @Test
+    void streamOrders_shouldNotFail_whileOtherThreadsWrite() throws Exception {
+        //GIVEN
+        for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+            repo.addOrder(newOrder.withId("existing-" + i));
+        }
+
+        //WHEN
+        // thread 0 keeps walking the repo while the others insert and update
+        runConcurrently(thread -> {
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                if (thread == 0) {
+                    long existing = repo.streamOrders().filter(o -> o.id().startsWith("existing-")).count();
+                    assertEquals(ORDERS_PER_THREAD, existing);
+                } else {
+                    repo.addOrder(newOrder.withId(thread + "-" + i));
+                    repo.updateOrder("existing-" + i, OrderStatus.COMPLETED);
+                }
+            }
+        });
+
+        //THEN
+        List<Order> completed = new ArrayList<>();
+        repo.forEachOrder(o -> o.orderStatus() == OrderStatus.COMPLETED, completed::add);
+        assertEquals(ORDERS_PER_THREAD, completed.size());
+    }
+
+    @Test
+    void updateOrder_whenCalledFromManyThreads_shouldNotLoseUpdates() throws Exception {
+        //GIVEN
+        List<List<String>> idsPerThread = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                String id = thread + "-" + i;
+                repo.addOrder(newOrder.withId(id));
+                ids.add(id);
+            }
+            idsPerThread.add(ids);
+        }
+
+        //WHEN
+        // every thread updates its own orders while the map is resized by concurrent inserts
+        runConcurrently(thread -> {
+            List<String> ownIds = idsPerThread.get(thread);
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                repo.updateOrder(ownIds.get(i), OrderStatus.IN_DELIVERY);
+                repo.addOrder(newOrder.withId("new-" + thread + "-" + i));
+                repo.updateOrder(ownIds.get(i), OrderStatus.COMPLETED);
+            }
+        });
+
+        //THEN
+        for (List<String> ids : idsPerThread) {
+            for (String id : ids) {
+                assertEquals(OrderStatus.COMPLETED, repo.getOrderById(id).orderStatus(), "Lost update for order " + id);
+            }
+        }
+        assertEquals(2 * THREADS * ORDERS_PER_THREAD, repo.getOrders().size());
+        assertEquals(THREADS * ORDERS_PER_THREAD, repo.getOrdersByOrderStatus(OrderStatus.COMPLETED).size());
+        assertEquals(THREADS * ORDERS_PER_THREAD, repo.getOrdersByOrderStatus(OrderStatus.PROCESSING).size());
+        assertTrue(repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).isEmpty());
+    }
+
+    @Test
+    void updateOrder_withExpectedVersion_shouldLetExactlyOneRacingWriterWin() throws Exception {
+        //GIVEN
+        repo.addOrder(newOrder);
+        ConcurrentLinkedQueue<Order> winners = new ConcurrentLinkedQueue<>();
+
+        //WHEN
+        runConcurrently(thread -> repo.updateOrder("1", 0, OrderStatus.IN_DELIVERY).ifPresent(winners::add));
+
+        //THEN
+        assertEquals(1, winners.size());
+        assertEquals(1, repo.getOrderById("1").version());
+        assertEquals(List.of(repo.getOrderById("1")), repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY));
+    }
+
+    @Test
+    void shopServiceUpdateOrder_whenCalledFromManyThreadsOnOneOrder_shouldKeepStatisticsExact() throws Exception {
+        //GIVEN
+        ProductRepo productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        ShopService shopService = new ShopService(productRepo, repo, new StringIdGeneratorRepo());
+        String id = shopService.addOrder(List.of("1")).id();
+
+        //WHEN
+        // the first update moves the order on, all later ones set the same status again and race on the same version
+        runConcurrently(thread -> {
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                shopService.updateOrder(id, OrderStatus.IN_DELIVERY);
+            }
+        });
+
+        //THEN
+        var statistics = shopService.getOrderStatistics();
+        long transitions = 0;
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                transitions += statistics.getTransitionCount(from, to);
+            }
+        }
+        assertEquals(THREADS * ORDERS_PER_THREAD, repo.getOrderById(id).version());
+        assertEquals(THREADS * ORDERS_PER_THREAD, transitions);
+        assertEquals(1, statistics.getTransitionCount(OrderStatus.PROCESSING, OrderStatus.IN_DELIVERY));
+        assertEquals(1, statistics.getOrderCount(OrderStatus.IN_DELIVERY));
+        assertEquals(0, statistics.getOrderCount(OrderStatus.PROCESSING));
+    }
+
+    private void runConcurrently(IntConsumerTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadIndex);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface IntConsumerTask {
+        void run(int threadIndex) throws Exception;
+    }
+}
@@ -0,0 +1,231 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.DurableOrderRepo;
+import repository.OrderMapRepo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableOrderRepoTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00.123456789+01:00[Europe/Berlin]");
+
+    @TempDir
+    Path directory;
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel"), new Product("2", "Banane")), OrderStatus.PROCESSING, FIXED_TIME);
+
+    private DurableOrderRepo open(int syncBatchSize, long snapshotEveryRecords) throws IOException {
+        return new DurableOrderRepo(directory, new OrderMapRepo(), syncBatchSize, snapshotEveryRecords);
+    }
+
+    @Test
+    void reopen_shouldRecoverAllMutations_fromLog() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(1, 0)) {
+            repo.addOrder(newOrder);
+            repo.addOrder(newOrder.withId("2"));
+            repo.addOrder(newOrder.withId("3"));
+            repo.updateOrder("1", OrderStatus.COMPLETED);
+            repo.removeOrder("2");
+        }
+
+        //WHEN
+        try (DurableOrderRepo recovered = open(1, 0)) {
+
+            //THEN
+            assertEquals(newOrder.nextVersion(OrderStatus.COMPLETED), recovered.getOrderById("1"));
+            assertNull(recovered.getOrderById("2"));
+            assertEquals(newOrder.withId("3"), recovered.getOrderById("3"));
+            assertEquals(2, recovered.getOrders().size());
+        }
+    }
+
+    @Test
+    void reopen_shouldRecoverFromSnapshotAndLogTail() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(4, 3)) {
+            repo.addOrder(newOrder);
+            repo.addOrder(newOrder.withId("2"));
+            repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+            // snapshot was taken after the third record, these two only live in the log
+            repo.addOrder(newOrder.withId("3"));
+            repo.updateOrder("2", OrderStatus.COMPLETED);
+        }
+
+        //WHEN
+        try (DurableOrderRepo recovered = open(4, 3)) {
+
+            //THEN
+            assertTrue(Files.exists(directory.resolve(DurableOrderRepo.SNAPSHOT_FILE)));
+            assertEquals(OrderStatus.IN_DELIVERY, recovered.getOrderById("1").orderStatus());
+            assertEquals(OrderStatus.COMPLETED, recovered.getOrderById("2").orderStatus());
+            assertEquals(newOrder.withId("3"), recovered.getOrderById("3"));
+        }
+    }
+
+    @Test
+    void snapshot_shouldTruncateLog() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(1, 0)) {
+            long emptyLogSize = Files.size(directory.resolve(DurableOrderRepo.LOG_FILE));
+            repo.addOrder(newOrder);
+
+            //WHEN
+            repo.snapshot();
+
+            //THEN
+            assertEquals(emptyLogSize, Files.size(directory.resolve(DurableOrderRepo.LOG_FILE)));
+            assertEquals(newOrder, repo.getOrderById("1"));
+        }
+    }
+
+    @Test
+    void reopen_shouldDropTornRecordAtEndOfLog() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(1, 0)) {
+            repo.addOrder(newOrder);
+            repo.addOrder(newOrder.withId("2"));
+        }
+        Path log = directory.resolve(DurableOrderRepo.LOG_FILE);
+        long intactSize = Files.size(log);
+        // simulate a crash in the middle of appending the next record
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 1, 0}, StandardOpenOption.APPEND);
+
+        //WHEN
+        try (DurableOrderRepo recovered = open(1, 0)) {
+            recovered.addOrder(newOrder.withId("3"));
+        }
+
+        //THEN
+        assertTrue(Files.size(log) > intactSize);
+        try (DurableOrderRepo recovered = open(1, 0)) {
+            assertEquals(3, recovered.getOrders().size());
+        }
+    }
+
+    @Test
+    void reopen_shouldNotReplayLogAgain_whenCrashLeftPreviousGenerationLogBehindSnapshot() throws IOException {
+        //GIVEN
+        Path log = directory.resolve(DurableOrderRepo.LOG_FILE);
+        byte[] logBeforeSnapshot;
+        try (DurableOrderRepo repo = open(1, 0)) {
+            repo.addOrder(newOrder);
+            repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+            logBeforeSnapshot = Files.readAllBytes(log);
+            repo.snapshot();
+        }
+        // simulate a crash after the snapshot was moved into place but before the log was reset
+        Files.write(log, logBeforeSnapshot);
+
+        //WHEN
+        try (DurableOrderRepo recovered = open(1, 0)) {
+
+            //THEN
+            assertEquals(newOrder.nextVersion(OrderStatus.IN_DELIVERY), recovered.getOrderById("1"));
+            assertEquals(1, recovered.getOrders().size());
+        }
+    }
+
+    @Test
+    void reopen_shouldThrowIOException_whenRecordBeforeTheTailIsCorrupt() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(1, 0)) {
+            repo.addOrder(newOrder);
+            repo.addOrder(newOrder.withId("2"));
+        }
+        Path log = directory.resolve(DurableOrderRepo.LOG_FILE);
+        byte[] bytes = Files.readAllBytes(log);
+        // flip a payload byte of the first record, which is followed by an intact one
+        bytes[25] ^= 0x7F;
+        Files.write(log, bytes);
+
+        //WHEN //THEN
+        assertThrows(IOException.class, () -> open(1, 0));
+    }
+
+    @Test
+    void reopen_shouldThrowIOException_whenLogHasNoHeader() throws IOException {
+        //GIVEN
+        Files.write(directory.resolve(DurableOrderRepo.LOG_FILE), new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 1, 0, 0, 0, 0});
+
+        //WHEN //THEN
+        assertThrows(IOException.class, () -> open(1, 0));
+    }
+
+    @Test
+    void syncTimer_shouldWritePartialBatch_withinMaxSyncDelay() throws Exception {
+        //GIVEN
+        Path log = directory.resolve(DurableOrderRepo.LOG_FILE);
+        try (DurableOrderRepo repo = DurableOrderRepo.open(directory, new OrderMapRepo(), 1024, 0, 10)) {
+            long emptyLogSize = Files.size(log);
+
+            //WHEN
+            repo.addOrder(newOrder);
+
+            //THEN
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (Files.size(log) == emptyLogSize && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.size(log) > emptyLogSize);
+        }
+    }
+
+    @Test
+    void addOrders_shouldLogWholeBatch() throws IOException {
+        //GIVEN
+        try (DurableOrderRepo repo = open(16, 0)) {
+            repo.addOrders(List.of(newOrder, newOrder.withId("2"), newOrder.withId("3")));
+        }
+
+        //WHEN
+        try (DurableOrderRepo recovered = open(16, 0)) {
+
+            //THEN
+            assertEquals(3, recovered.getOrders().size());
+            assertEquals(newOrder.withId("2"), recovered.getOrderById("2"));
+        }
+    }
+
+    @Test
+    void addOrders_shouldCountEveryOrderTowardsTheNextSnapshot() throws IOException {
+        //GIVEN
+        Path log = directory.resolve(DurableOrderRepo.LOG_FILE);
+        try (DurableOrderRepo repo = open(1, 4)) {
+            long emptyLogSize = Files.size(log);
+            repo.addOrders(List.of(newOrder, newOrder.withId("2"), newOrder.withId("3")));
+            assertTrue(Files.size(log) > emptyLogSize);
+
+            //WHEN
+            repo.addOrder(newOrder.withId("4"));
+
+            //THEN
+            assertEquals(emptyLogSize, Files.size(log));
+            assertTrue(Files.exists(directory.resolve(DurableOrderRepo.SNAPSHOT_FILE)));
+        }
+    }
+
+    @Test
+    void updateOrder_whenOrderNotExists_shouldReturnEmptyAndNotLog() throws IOException {
+        try (DurableOrderRepo repo = open(1, 0)) {
+            long emptyLogSize = Files.size(directory.resolve(DurableOrderRepo.LOG_FILE));
+            assertTrue(repo.updateOrder("999", OrderStatus.COMPLETED).isEmpty());
+            assertEquals(emptyLogSize, Files.size(directory.resolve(DurableOrderRepo.LOG_FILE)));
+        }
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenSyncBatchSizeIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> open(0, 0));
+    }
+}
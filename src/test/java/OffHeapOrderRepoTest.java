@@ -0,0 +1,254 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.OffHeapOrderRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ShopService;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapOrderRepoTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00.123456+01:00[Europe/Berlin]");
+
+    private ProductRepo productRepo;
+    private OffHeapOrderRepo repo;
+    private Order newOrder;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        productRepo.addProduct(new Product("2", "Banane"));
+        repo = new OffHeapOrderRepo(productRepo);
+        newOrder = new Order("1", List.of(new Product("1", "Apfel"), new Product("2", "Banane")), OrderStatus.PROCESSING, FIXED_TIME);
+    }
+
+    @Test
+    void addOrder_shouldStoreOrderThatMaterializesEqual() {
+        //WHEN
+        repo.addOrder(newOrder);
+
+        //THEN
+        assertEquals(newOrder, repo.getOrderById("1"));
+        assertEquals(List.of(newOrder), repo.getOrders());
+    }
+
+    @Test
+    void addOrder_shouldReplaceOrder_whenIdExists() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.addOrder(newOrder.withProducts(List.of(new Product("2", "Banane"))));
+
+        //THEN
+        assertEquals(1, repo.getOrders().size());
+        assertEquals(List.of(new Product("2", "Banane")), repo.getOrderById("1").products());
+    }
+
+    @Test
+    void removeOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.removeOrder("1");
+
+        //THEN
+        assertNull(repo.getOrderById("1"));
+        assertTrue(repo.getOrders().isEmpty());
+    }
+
+    @Test
+    void updateOrder_whenOrderExists_shouldReturnUpdatedOrder() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        var result = repo.updateOrder("1", OrderStatus.COMPLETED);
+
+        //THEN
+        assertEquals(newOrder.nextVersion(OrderStatus.COMPLETED), result.orElseThrow());
+        assertEquals(OrderStatus.COMPLETED, repo.getOrderById("1").orderStatus());
+        assertTrue(repo.updateOrder("999", OrderStatus.COMPLETED).isEmpty());
+    }
+
+    @Test
+    void updateOrder_withExpectedVersion_shouldKeepVersionInSlot() {
+        //GIVEN
+        repo.addOrder(newOrder.withVersion(41));
+
+        //WHEN
+        var stale = repo.updateOrder("1", 40, OrderStatus.COMPLETED);
+        var current = repo.updateOrder("1", 41, OrderStatus.COMPLETED);
+
+        //THEN
+        assertTrue(stale.isEmpty());
+        assertEquals(newOrder.withOrderStatus(OrderStatus.COMPLETED).withVersion(42), current.orElseThrow());
+        assertEquals(42, repo.getOrderById("1").version());
+    }
+
+    @Test
+    void getOrdersByOrderStatus_andOldest_shouldOnlyReturnMatchingOrders() {
+        //GIVEN
+        repo.addOrder(newOrder.withId("newer").withOrderStatus(OrderStatus.COMPLETED));
+        repo.addOrder(new Order("older", newOrder.products(), OrderStatus.COMPLETED, FIXED_TIME.minusDays(1)));
+        repo.addOrder(newOrder);
+
+        //WHEN
+        List<Order> completed = repo.getOrdersByOrderStatus(OrderStatus.COMPLETED);
+
+        //THEN
+        assertEquals(2, completed.size());
+        assertEquals("older", repo.getOldestOrderByOrderStatus(OrderStatus.COMPLETED).orElseThrow().id());
+        assertTrue(repo.getOldestOrderByOrderStatus(OrderStatus.IN_DELIVERY).isEmpty());
+    }
+
+    @Test
+    void getOrdersByOrderStatus_shouldFollowAddsUpdatesAndRemovals_acrossSlotReuse() {
+        //GIVEN
+        for (int i = 0; i < 200; i++) {
+            repo.addOrder(newOrder.withId("order-" + i));
+        }
+        for (int i = 0; i < 200; i += 2) {
+            repo.updateOrder("order-" + i, OrderStatus.COMPLETED);
+        }
+        for (int i = 0; i < 200; i += 4) {
+            repo.removeOrder("order-" + i);
+        }
+
+        //WHEN
+        // reuses the freed slots, whose status bytes still held COMPLETED
+        for (int i = 0; i < 50; i++) {
+            repo.addOrder(newOrder.withId("late-" + i).withOrderStatus(OrderStatus.IN_DELIVERY));
+        }
+        repo.addOrder(newOrder.withId("order-1").withOrderStatus(OrderStatus.COMPLETED));
+
+        //THEN
+        assertEquals(99, repo.getOrdersByOrderStatus(OrderStatus.PROCESSING).size());
+        assertEquals(51, repo.getOrdersByOrderStatus(OrderStatus.COMPLETED).size());
+        assertEquals(50, repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).size());
+        assertTrue(repo.getOrdersByOrderStatus(OrderStatus.COMPLETED).stream().allMatch(order -> order.orderStatus() == OrderStatus.COMPLETED));
+        assertEquals("order-1", repo.getOldestOrderByOrderStatus(OrderStatus.COMPLETED).orElseThrow().id());
+    }
+
+    @Test
+    void getOldestOrderByOrderStatus_shouldBreakTiesById_whenOrderedAtIsEqual() {
+        //GIVEN
+        repo.addOrder(newOrder.withId("b"));
+        repo.addOrder(newOrder.withId("ab"));
+        repo.addOrder(newOrder.withId("c"));
+        repo.addOrder(newOrder.withId("a"));
+
+        //WHEN
+        Order oldest = repo.getOldestOrderByOrderStatus(OrderStatus.PROCESSING).orElseThrow();
+
+        //THEN
+        assertEquals("a", oldest.id());
+    }
+
+    @Test
+    void getOrderById_shouldStillResolveProducts_whenProductWasRemovedFromCatalogue() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        productRepo.removeProduct("2");
+
+        //THEN
+        assertEquals(newOrder.products(), repo.getOrderById("1").products());
+    }
+
+    @Test
+    void addOrder_shouldKeepAllOrdersFindable_whenIndexAndSegmentsGrow() {
+        //GIVEN
+        int count = 100_000;
+
+        //WHEN
+        for (int i = 0; i < count; i++) {
+            repo.addOrder(newOrder.withId("order-" + i));
+        }
+        for (int i = 0; i < count; i += 2) {
+            repo.removeOrder("order-" + i);
+        }
+
+        //THEN
+        assertEquals(count / 2, repo.getOrders().size());
+        assertEquals(count / 2, repo.streamOrders().count());
+        assertNull(repo.getOrderById("order-0"));
+        assertEquals("order-99999", repo.getOrderById("order-99999").id());
+    }
+
+    @Test
+    void addOrder_shouldThrowIllegalArgumentException_whenIdDoesNotFitSlot() {
+        assertThrows(IllegalArgumentException.class, () -> repo.addOrder(newOrder.withId("x".repeat(OffHeapOrderRepo.MAX_ID_LENGTH + 1))));
+        assertThrows(IllegalArgumentException.class, () -> repo.addOrder(newOrder.withId("bestellung-ä")));
+    }
+
+    @Test
+    void addOrder_shouldKeepProductsIntact_whenUnknownProductsAreRegisteredWhileShopServicePlacesOrders() throws Exception {
+        //GIVEN
+        ShopService shopService = new ShopService(productRepo, repo, new StringIdGeneratorRepo());
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //WHEN
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 2; thread++) {
+                int writer = thread;
+                // stored orders with products the catalogue has never seen, as a recovery or import would add them
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        Product unknown = new Product("u" + writer + "-" + i, "Unbekannt " + i);
+                        repo.addOrder(newOrder.withId("stored-" + writer + "-" + i).withProducts(List.of(unknown)));
+                    }
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread / 2; i++) {
+                        shopService.addOrder(List.of("1", "2"));
+                        shopService.addOrders(List.of(List.of("2"), List.of("1", "1")));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        assertEquals(2 * perThread + 2 * (perThread / 2) * 3, repo.getOrders().size());
+        for (int writer = 0; writer < 2; writer++) {
+            for (int i = 0; i < perThread; i++) {
+                Product expected = new Product("u" + writer + "-" + i, "Unbekannt " + i);
+                assertEquals(List.of(expected), repo.getOrderById("stored-" + writer + "-" + i).products());
+                assertEquals(expected, productRepo.getProductByOrdinal(productRepo.getOrdinal(expected)));
+            }
+        }
+        for (Order order : repo.getOrders()) {
+            if (!order.id().startsWith("stored-")) {
+                assertTrue(order.products().stream().allMatch(product -> product.id().equals("1") || product.id().equals("2")));
+            }
+        }
+    }
+}
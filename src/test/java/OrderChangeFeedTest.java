@@ -0,0 +1,180 @@
+import enums.OrderChangeType;
+import enums.OrderStatus;
+import model.Order;
+import model.OrderChangeEvent;
+import model.Product;
+import org.junit.jupiter.api.Test;
+import repository.ChangeFeedOrderRepo;
+import repository.ConcurrentOrderRepo;
+import repository.OrderChangeFeed;
+import repository.OrderMapRepo;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderChangeFeedTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00+01:00[Europe/Berlin]");
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel")), OrderStatus.PROCESSING, FIXED_TIME);
+
+    @Test
+    void changeFeedOrderRepo_shouldPublishEveryMutationInOrder() {
+        //GIVEN
+        OrderChangeFeed feed = new OrderChangeFeed(16);
+        ChangeFeedOrderRepo repo = new ChangeFeedOrderRepo(new OrderMapRepo(), feed);
+        OrderChangeFeed.Subscription subscription = feed.subscribe();
+
+        //WHEN
+        repo.addOrder(newOrder);
+        repo.addOrders(List.of(newOrder.withId("2")));
+        repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+        repo.updateOrder("1", 0, OrderStatus.COMPLETED);
+        repo.updateOrder("999", OrderStatus.COMPLETED);
+        repo.removeOrder("2");
+        repo.removeOrder("999");
+
+        //THEN
+        List<OrderChangeEvent> events = new ArrayList<>();
+        assertEquals(4, subscription.poll(100, events::add));
+        assertEquals(List.of(
+                new OrderChangeEvent(0, OrderChangeType.ADDED, newOrder),
+                new OrderChangeEvent(1, OrderChangeType.ADDED, newOrder.withId("2")),
+                new OrderChangeEvent(2, OrderChangeType.UPDATED, newOrder.nextVersion(OrderStatus.IN_DELIVERY)),
+                new OrderChangeEvent(3, OrderChangeType.REMOVED, newOrder.withId("2"))
+        ), events);
+        assertEquals(0, subscription.lag());
+    }
+
+    @Test
+    void removeOrder_shouldPublishOneRemovedEvent_whenManyThreadsRemoveTheSameOrder() throws Exception {
+        //GIVEN
+        int orders = 200;
+        int threads = 4;
+        OrderChangeFeed feed = new OrderChangeFeed(1024);
+        ChangeFeedOrderRepo repo = new ChangeFeedOrderRepo(new ConcurrentOrderRepo(), feed);
+        for (int i = 0; i < orders; i++) {
+            repo.addOrder(newOrder.withId(String.valueOf(i)));
+        }
+        OrderChangeFeed.Subscription subscription = feed.subscribe();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //WHEN
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < orders; i++) {
+                        repo.removeOrder(String.valueOf(i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        Set<String> removedIds = new HashSet<>();
+        assertEquals(orders, subscription.poll(orders * threads, event -> removedIds.add(event.order().id())));
+        assertEquals(orders, removedIds.size());
+    }
+
+    @Test
+    void poll_shouldDeliverInBatches_andEverySubscriptionShouldHaveItsOwnCursor() {
+        //GIVEN
+        OrderChangeFeed feed = new OrderChangeFeed(16);
+        OrderChangeFeed.Subscription early = feed.subscribe();
+        for (int i = 0; i < 5; i++) {
+            feed.publish(OrderChangeType.ADDED, newOrder.withId(String.valueOf(i)));
+        }
+        OrderChangeFeed.Subscription late = feed.subscribe();
+        feed.publish(OrderChangeType.ADDED, newOrder.withId("5"));
+
+        //WHEN
+        List<Long> firstBatch = new ArrayList<>();
+        early.poll(4, event -> firstBatch.add(event.sequence()));
+        List<Long> lateBatch = new ArrayList<>();
+        late.poll(4, event -> lateBatch.add(event.sequence()));
+
+        //THEN
+        assertEquals(List.of(0L, 1L, 2L, 3L), firstBatch);
+        assertEquals(2, early.lag());
+        assertEquals(List.of(5L), lateBatch);
+        assertEquals(0, late.lag());
+    }
+
+    @Test
+    void poll_shouldSkipOverwrittenEvents_andCountThemAsMissed() {
+        //GIVEN
+        OrderChangeFeed feed = new OrderChangeFeed(4);
+        OrderChangeFeed.Subscription slow = feed.subscribe();
+
+        //WHEN
+        for (int i = 0; i < 10; i++) {
+            feed.publish(OrderChangeType.ADDED, newOrder.withId(String.valueOf(i)));
+        }
+        List<Long> sequences = new ArrayList<>();
+        slow.poll(100, event -> sequences.add(event.sequence()));
+
+        //THEN
+        assertEquals(List.of(6L, 7L, 8L, 9L), sequences);
+        assertEquals(6, slow.getMissedCount());
+        assertEquals(List.of(6L, 7L, 8L, 9L), pollAll(feed.subscribeFromOldest()));
+    }
+
+    @Test
+    void publish_fromManyThreads_shouldHandOutEverySequenceOnce() throws Exception {
+        //GIVEN
+        int threads = 4;
+        int eventsPerThread = 10_000;
+        OrderChangeFeed feed = new OrderChangeFeed(1 << 16);
+        OrderChangeFeed.Subscription subscription = feed.subscribe();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //WHEN
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        feed.publish(OrderChangeType.UPDATED, newOrder);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        List<Long> sequences = pollAll(subscription);
+        Set<Long> distinct = new HashSet<>(sequences);
+        assertEquals(threads * eventsPerThread, sequences.size());
+        assertEquals(sequences.size(), distinct.size());
+        assertEquals(threads * eventsPerThread - 1, sequences.get(sequences.size() - 1));
+        assertEquals(0, subscription.getMissedCount());
+    }
+
+    private static List<Long> pollAll(OrderChangeFeed.Subscription subscription) {
+        List<Long> sequences = new ArrayList<>();
+        while (subscription.poll(256, event -> sequences.add(event.sequence())) > 0) {
+            // keep draining
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,93 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.OffHeapOrderRepo;
+import repository.OrderColumnarFile;
+import repository.OrderMapRepo;
+import repository.ProductRepo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderColumnarFileTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00.123456789+01:00[Europe/Berlin]");
+
+    @TempDir
+    Path directory;
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel"), new Product("2", "Banane")), OrderStatus.PROCESSING, FIXED_TIME);
+
+    @Test
+    void exportAndImport_shouldRoundTripAllOrders() throws IOException {
+        //GIVEN
+        OrderMapRepo source = new OrderMapRepo();
+        source.addOrder(newOrder);
+        source.addOrder(newOrder.withId("bestellung-ä").withOrderStatus(OrderStatus.COMPLETED).withProducts(List.of()));
+        source.addOrder(new Order("3", List.of(new Product("2", "Banane"), new Product("2", "Banane")), OrderStatus.IN_DELIVERY,
+                ZonedDateTime.parse("2024-06-30T23:59:59Z[UTC]")));
+        Path file = directory.resolve("orders.col");
+
+        //WHEN
+        int exported = OrderColumnarFile.exportOrders(source, file);
+        OrderMapRepo target = new OrderMapRepo();
+        int imported = OrderColumnarFile.importOrders(file, target);
+
+        //THEN
+        assertEquals(3, exported);
+        assertEquals(3, imported);
+        assertEquals(sorted(source.getOrders()), sorted(target.getOrders()));
+    }
+
+    @Test
+    void importOrders_shouldFillOffHeapRepo_withManyOrdersAcrossBufferRefills() throws IOException {
+        //GIVEN
+        List<Order> orders = new ArrayList<>();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < 300_000; i++) {
+            orders.add(new Order("order-" + i, List.of(new Product(String.valueOf(i % 100), "Product " + i % 100)),
+                    statuses[i % statuses.length], FIXED_TIME.withNano(123_456_000).plusSeconds(i)));
+        }
+        Path file = directory.resolve("orders.col");
+        OrderColumnarFile.write(orders, file);
+        // the off-heap repo keeps microsecond precision
+        OffHeapOrderRepo target = new OffHeapOrderRepo(new ProductRepo());
+
+        //WHEN
+        int imported = OrderColumnarFile.importOrders(file, target);
+
+        //THEN
+        assertEquals(300_000, imported);
+        assertEquals(orders.get(123_456), target.getOrderById("order-123456"));
+        assertEquals(orders.get(299_999), target.getOrderById("order-299999"));
+    }
+
+    @Test
+    void read_shouldThrowIOException_whenFileIsTruncatedOrNotColumnar() throws IOException {
+        //GIVEN
+        Path file = directory.resolve("orders.col");
+        OrderColumnarFile.write(List.of(newOrder, newOrder.withId("2")), file);
+        Path truncated = directory.resolve("truncated.col");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+        Path other = directory.resolve("other.col");
+        Files.writeString(other, "addOrder 1 1 2 and some more text");
+
+        //THEN
+        assertThrows(IOException.class, () -> OrderColumnarFile.read(truncated));
+        assertThrows(IOException.class, () -> OrderColumnarFile.read(other));
+    }
+
+    private static List<Order> sorted(List<Order> orders) {
+        return orders.stream().sorted(Comparator.comparing(Order::id)).toList();
+    }
+}
@@ -0,0 +1,85 @@
+import enums.OrderStatus;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import output.NullOutputSink;
+import repository.ConcurrentOrderRepo;
+import repository.ProductRepo;
+import repository.SnowflakeIdGeneratorRepo;
+import server.IntakeLoadGenerator;
+import server.OrderIntakeServer;
+import service.ShopService;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIntakeServerTest {
+
+    private ShopService shopService;
+    private OrderIntakeServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ProductRepo productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        productRepo.addProduct(new Product("2", "Banane"));
+        shopService = new ShopService(productRepo, new ConcurrentOrderRepo(), new SnowflakeIdGeneratorRepo(0));
+        shopService.setOutput(NullOutputSink.INSTANCE);
+        server = new OrderIntakeServer(shopService, 4);
+        server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void commands_shouldBeAnsweredInOrder_whenPipelined() throws IOException {
+        //GIVEN
+        List<String> responses = new ArrayList<>();
+
+        //WHEN
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            out.write("addOrder A 1 2\n\nsetStatus A COMPLETED\nsetStatus B COMPLETED\naddOrder C 999\nsetStatus A LOST\nbogus\n");
+            out.flush();
+            for (int i = 0; i < 6; i++) {
+                responses.add(in.readLine());
+            }
+        }
+
+        //THEN
+        String orderId = responses.get(0).substring("OK ".length());
+        assertEquals("OK " + orderId + " COMPLETED", responses.get(1));
+        assertEquals("ERR Order with name: B not found!", responses.get(2));
+        assertTrue(responses.get(3).startsWith("ERR Product with id: 999"));
+        assertEquals("ERR Invalid status: LOST", responses.get(4));
+        assertEquals("ERR Invalid command: bogus", responses.get(5));
+        assertEquals(OrderStatus.COMPLETED, shopService.getOrderRepo().getOrderById(orderId).orderStatus());
+    }
+
+    @Test
+    void loadGenerator_shouldPlaceEveryOrder_acrossManyConnections() throws InterruptedException {
+        //GIVEN
+        IntakeLoadGenerator generator = new IntakeLoadGenerator(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), 2);
+
+        //WHEN
+        IntakeLoadGenerator.Result result = generator.run(50, 20);
+
+        //THEN
+        assertEquals(50 * 30, result.requests());
+        assertEquals(0, result.errors());
+        assertEquals(50 * 20, shopService.getOrders().size());
+        assertEquals(50 * 10, shopService.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).size());
+        assertEquals(result.requests(), result.latencies().totalCount());
+    }
+}
@@ -1,5 +1,6 @@
 import enums.OrderStatus;
 import model.Order;
+import model.OrderPage;
 import model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,8 +10,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 class OrderListRepoTest {
 
@@ -41,6 +41,37 @@ class OrderListRepoTest {
         assertEquals(actual, expected);
     }
 
+    @Test
+    void getOrders_shouldReturnCopy_thatDoesNotChangeRepository() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        repo.getOrders().clear();
+
+        //THEN
+        assertEquals(List.of(newOrder), repo.streamOrders().toList());
+    }
+
+    @Test
+    void getOrderPage_shouldPageUnsortedOrdersByOrderedAt() {
+        //GIVEN
+        repo.addOrder(newOrder.withId("late"));
+        repo.addOrder(new Order("early", newOrder.products(), OrderStatus.COMPLETED, FIXED_TIME.minusDays(1)));
+        repo.addOrder(newOrder.withId("another-late"));
+
+        //WHEN
+        OrderPage first = repo.getOrderPage(null, 2);
+        OrderPage second = repo.getOrderPage(first.nextCursor(), 2);
+
+        //THEN
+        assertEquals(List.of("early", "another-late"), first.orders().stream().map(Order::id).toList());
+        assertEquals(List.of("late"), second.orders().stream().map(Order::id).toList());
+        assertFalse(second.hasNext());
+        assertEquals(List.of("another-late", "late"),
+                repo.getOrderPageByOrderStatus(OrderStatus.PROCESSING, null, 5).orders().stream().map(Order::id).toList());
+    }
+
     @Test
     void getOrderById() {
         //GIVEN
@@ -1,5 +1,6 @@
 import enums.OrderStatus;
 import model.Order;
+import model.OrderPage;
 import model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import repository.OrderMapRepo;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -82,6 +84,20 @@ class OrderMapRepoTest {
         assertNull(repo.getOrderById("1"));
     }
 
+    @Test
+    void removeOrder_shouldReturnRemovedOrderOnlyOnce() {
+        //GIVEN
+        repo.addOrder(newOrder);
+
+        //WHEN
+        var first = repo.removeOrder(newOrder.id());
+        var second = repo.removeOrder(newOrder.id());
+
+        //THEN
+        assertEquals(newOrder, first.orElseThrow());
+        assertTrue(second.isEmpty());
+    }
+
     @Test
     void updateOrder_whenOrderExists_shouldReturnUpdatedOrder() {
         //GIVEN
@@ -110,6 +126,23 @@ class OrderMapRepoTest {
         assertEquals(OrderStatus.COMPLETED, retrievedOrder.orderStatus());
     }
 
+    @Test
+    void updateOrder_withExpectedVersion_shouldOnlyApplyToThatVersion() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.updateOrder("1", OrderStatus.IN_DELIVERY);
+
+        //WHEN
+        var stale = repo.updateOrder("1", 0, OrderStatus.COMPLETED);
+        var current = repo.updateOrder("1", 1, OrderStatus.COMPLETED);
+
+        //THEN
+        assertTrue(stale.isEmpty());
+        assertEquals(newOrder.withOrderStatus(OrderStatus.COMPLETED).withVersion(2), current.orElseThrow());
+        assertEquals(current.get(), repo.getOrderById("1"));
+        assertTrue(repo.updateOrder("999", 0, OrderStatus.COMPLETED).isEmpty());
+    }
+
     @Test
     void updateOrder_whenOrderNotExists_shouldReturnEmpty() {
         //WHEN
@@ -119,4 +152,107 @@ class OrderMapRepoTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getOrdersByOrderStatus_shouldFollowStatusUpdates() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.addOrder(newOrder.withId("2"));
+
+        //WHEN
+        repo.updateOrder("1", OrderStatus.COMPLETED);
+
+        //THEN
+        assertEquals(List.of(newOrder.withId("2")), repo.getOrdersByOrderStatus(OrderStatus.PROCESSING));
+        assertEquals(List.of(newOrder.nextVersion(OrderStatus.COMPLETED)), repo.getOrdersByOrderStatus(OrderStatus.COMPLETED));
+        assertTrue(repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).isEmpty());
+    }
+
+    @Test
+    void getOrdersByOrderStatus_shouldNotContainRemovedOrReplacedOrders() {
+        //GIVEN
+        repo.addOrder(newOrder);
+        repo.addOrder(newOrder.withId("2"));
+
+        //WHEN
+        repo.removeOrder("2");
+        repo.addOrder(newOrder.withOrderStatus(OrderStatus.IN_DELIVERY));
+
+        //THEN
+        assertTrue(repo.getOrdersByOrderStatus(OrderStatus.PROCESSING).isEmpty());
+        assertEquals(1, repo.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).size());
+    }
+
+    @Test
+    void getOldestOrderByOrderStatus_shouldFollowStatusTransitions() {
+        //GIVEN
+        Order oldest = newOrder.withId("oldest");
+        Order middle = new Order("middle", newOrder.products(), OrderStatus.PROCESSING, FIXED_TIME.plusMinutes(1));
+        Order newest = new Order("newest", newOrder.products(), OrderStatus.PROCESSING, FIXED_TIME.plusMinutes(2));
+        repo.addOrder(newest);
+        repo.addOrder(oldest);
+        repo.addOrder(middle);
+
+        //WHEN
+        repo.updateOrder("oldest", OrderStatus.COMPLETED);
+        repo.updateOrder("newest", OrderStatus.COMPLETED);
+
+        //THEN
+        assertEquals("middle", repo.getOldestOrderByOrderStatus(OrderStatus.PROCESSING).orElseThrow().id());
+        assertEquals("oldest", repo.getOldestOrderByOrderStatus(OrderStatus.COMPLETED).orElseThrow().id());
+        assertTrue(repo.getOldestOrderByOrderStatus(OrderStatus.IN_DELIVERY).isEmpty());
+    }
+
+    @Test
+    void getOrderPage_shouldWalkAllOrdersOldestFirst_acrossStatusesAndEqualTimes() {
+        //GIVEN
+        List<Order> expected = addPagingOrders();
+
+        //WHEN
+        List<Order> walked = walkPages((cursor, limit) -> repo.getOrderPage(cursor, limit), 4);
+
+        //THEN
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void getOrderPageByOrderStatus_shouldOnlyWalkOrdersOfThatStatus() {
+        //GIVEN
+        List<Order> expected = addPagingOrders().stream().filter(o -> o.orderStatus() == OrderStatus.IN_DELIVERY).toList();
+
+        //WHEN
+        List<Order> walked = walkPages((cursor, limit) -> repo.getOrderPageByOrderStatus(OrderStatus.IN_DELIVERY, cursor, limit), 3);
+
+        //THEN
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void getOrderPage_shouldRejectInvalidCursorAndLimit() {
+        assertThrows(IllegalArgumentException.class, () -> repo.getOrderPage("not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> repo.getOrderPage(null, 0));
+    }
+
+    // 25 orders, sorted, with groups of orders sharing one orderedAt so the id has to break ties
+    private List<Order> addPagingOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Order order = new Order("order-" + (100 - i), newOrder.products(), OrderStatus.values()[i % 3], FIXED_TIME.plusMinutes(i / 3));
+            repo.addOrder(order);
+            orders.add(order);
+        }
+        orders.sort(Order.BY_ORDERED_AT);
+        return orders;
+    }
+
+    private static List<Order> walkPages(BiFunction<String, Integer, OrderPage> pageSource, int limit) {
+        List<Order> walked = new ArrayList<>();
+        OrderPage page = pageSource.apply(null, limit);
+        walked.addAll(page.orders());
+        while (page.hasNext()) {
+            assertEquals(limit, page.orders().size());
+            page = pageSource.apply(page.nextCursor(), limit);
+            walked.addAll(page.orders());
+        }
+        return walked;
+    }
 }
@@ -0,0 +1,65 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.Test;
+import service.OrderStatistics;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderStatisticsTest {
+
+    private static final ZonedDateTime FIXED_TIME = ZonedDateTime.parse("2025-01-01T10:00:00+01:00[Europe/Berlin]");
+
+    private final Order newOrder = new Order("1", List.of(new Product("1", "Apfel")), OrderStatus.PROCESSING, FIXED_TIME);
+
+    @Test
+    void orderUpdated_shouldOnlyCountTransition_whenStatusStaysTheSame() {
+        //GIVEN
+        OrderStatistics statistics = new OrderStatistics();
+        statistics.orderAdded(newOrder);
+
+        //WHEN
+        statistics.orderUpdated(newOrder, newOrder);
+
+        //THEN
+        assertEquals(1, statistics.getOrderCount(OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getUnitCount("1", OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getTransitionCount(OrderStatus.PROCESSING, OrderStatus.PROCESSING));
+    }
+
+    @Test
+    void counters_shouldBeExact_whenUpdatedFromManyThreads() throws Exception {
+        //GIVEN
+        OrderStatistics statistics = new OrderStatistics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int perThread = 10_000;
+
+        //WHEN
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    statistics.orderAdded(newOrder);
+                    statistics.orderUpdated(newOrder, newOrder.withOrderStatus(OrderStatus.COMPLETED));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //THEN
+        assertEquals(0, statistics.getOrderCount(OrderStatus.PROCESSING));
+        assertEquals(4 * perThread, statistics.getOrderCount(OrderStatus.COMPLETED));
+        assertEquals(4 * perThread, statistics.getUnitCount("1", OrderStatus.COMPLETED));
+        assertEquals(4 * perThread, statistics.getTransitionCount(OrderStatus.PROCESSING, OrderStatus.COMPLETED));
+    }
+}
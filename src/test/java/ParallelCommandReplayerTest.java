@@ -0,0 +1,132 @@
+import enums.OrderStatus;
+import model.Order;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.ConcurrentOrderRepo;
+import repository.ProductRepo;
+import repository.StringIdGeneratorRepo;
+import service.ParallelCommandReplayer;
+import service.ShopService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCommandReplayerTest {
+
+    private final PrintStream originalOut = System.out;
+    private final ByteArrayOutputStream capturedOut = new ByteArrayOutputStream();
+    private ShopService shopService;
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ProductRepo productRepo = new ProductRepo();
+        productRepo.addProduct(new Product("1", "Apfel"));
+        productRepo.addProduct(new Product("2", "Banane"));
+        shopService = new ShopService(productRepo, new ConcurrentOrderRepo(), new StringIdGeneratorRepo());
+        testFile = Files.createTempFile("test-parallel", ".txt");
+        System.setOut(new PrintStream(capturedOut, true));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        System.setOut(originalOut);
+        Files.deleteIfExists(testFile);
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenShardCountIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCommandReplayer(shopService, 0));
+    }
+
+    @Test
+    void processCommandsFromFile_shouldThrowIOException_whenFileDoesNotExist() {
+        ParallelCommandReplayer replayer = new ParallelCommandReplayer(shopService, 4);
+        assertThrows(IOException.class, () -> replayer.processCommandsFromFile(Path.of("nonExistentFile")));
+    }
+
+    @Test
+    void processCommandsFromFile_shouldKeepPerNameOrdering_whenReplayingOnManyShards() throws IOException {
+        //GIVEN
+        int names = 2_000;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < names; i++) {
+            lines.add("addOrder N" + i + " 1 2");
+        }
+        for (int i = 0; i < names; i++) {
+            lines.add("setStatus N" + i + " IN_DELIVERY");
+        }
+        // every second order ends up COMPLETED, which only works if its setStatus lines ran in file order
+        for (int i = 0; i < names; i += 2) {
+            lines.add("setStatus N" + i + " COMPLETED");
+        }
+        lines.add("invalidCommand X 1");
+        Files.write(testFile, lines);
+
+        //WHEN
+        new ParallelCommandReplayer(shopService, 4).processCommandsFromFile(testFile);
+
+        //THEN
+        assertEquals(names, shopService.getOrders().size());
+        assertEquals(names / 2, shopService.getOrdersByOrderStatus(OrderStatus.COMPLETED).size());
+        assertEquals(names / 2, shopService.getOrdersByOrderStatus(OrderStatus.IN_DELIVERY).size());
+        assertTrue(shopService.getOrdersByOrderStatus(OrderStatus.PROCESSING).isEmpty());
+    }
+
+    @Test
+    void processCommandsFromFile_shouldPrintAllPrecedingOrders_whenPrintOrdersActsAsBarrier() throws IOException {
+        //GIVEN
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("addOrder N" + i + " 1");
+        }
+        lines.add("printOrders");
+        lines.add("addOrder LATE 1");
+        Files.write(testFile, lines);
+
+        //WHEN
+        new ParallelCommandReplayer(shopService, 4).processCommandsFromFile(testFile);
+
+        //THEN
+        String output = capturedOut.toString();
+        String printed = output.substring(output.indexOf("All orders:"));
+        for (Order order : shopService.getOrders()) {
+            boolean late = output.contains("Created order LATE with " + order.id());
+            assertEquals(!late, printed.contains(order.toString()));
+        }
+    }
+
+    @Test
+    void processCommandsFromFile_shouldRouteByParsedName_whenLinesContainRepeatedSpaces() throws IOException {
+        //GIVEN
+        int names = 200;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < names; i++) {
+            lines.add("addOrder  N" + i + "   1");
+        }
+        for (int i = 0; i < names; i++) {
+            lines.add("setStatus N" + i + " IN_DELIVERY");
+        }
+        for (int i = 0; i < names; i++) {
+            lines.add("setStatus   N" + i + "  COMPLETED");
+        }
+        lines.add("printOrders  ");
+        Files.write(testFile, lines);
+
+        //WHEN
+        new ParallelCommandReplayer(shopService, 4).processCommandsFromFile(testFile);
+
+        //THEN
+        assertEquals(names, shopService.getOrdersByOrderStatus(OrderStatus.COMPLETED).size());
+        assertTrue(capturedOut.toString().contains("All orders:"));
+    }
+}
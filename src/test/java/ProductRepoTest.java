@@ -4,9 +4,12 @@ import repository.ProductRepo;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class ProductRepoTest {
 
@@ -68,4 +71,167 @@ class ProductRepoTest {
         //THEN
         assertTrue(repo.getProductById("1").isEmpty());
     }
+
+    @org.junit.jupiter.api.Test
+    void getProductsByIds_returnsProductsInRequestedOrder_whenAllIdsExist() {
+        //GIVEN
+        repo.addProduct(new Product("2", "Banane"));
+
+        //WHEN
+        List<Product> actual = repo.getProductsByIds(List.of("2", "1", "2")).orElse(null);
+
+        //THEN
+        List<Product> expected = List.of(new Product("2", "Banane"), new Product("1", "Apfel"), new Product("2", "Banane"));
+        assertEquals(expected, actual);
+    }
+
+    @org.junit.jupiter.api.Test
+    void getProductsByIds_returnsEmpty_whenOneIdIsUnknown() {
+        //GIVEN
+
+        //WHEN
+        var actual = repo.getProductsByIds(List.of("1", "999"));
+
+        //THEN
+        assertTrue(actual.isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void getBasketByIds_returnsSharedBasketEqualToProductList() {
+        //GIVEN
+        repo.addProduct(new Product("2", "Banane"));
+
+        //WHEN
+        List<Product> first = repo.getBasketByIds(List.of("2", "1")).orElseThrow();
+        List<Product> second = repo.getBasketByIds(List.of("2", "1")).orElseThrow();
+
+        //THEN
+        List<Product> expected = List.of(new Product("2", "Banane"), new Product("1", "Apfel"));
+        assertEquals(expected, first);
+        assertEquals(expected.hashCode(), first.hashCode());
+        assertSame(first, second);
+        assertNotSame(first, repo.getBasketByIds(List.of("1", "2")).orElseThrow());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Product("1", "Apfel")));
+        assertTrue(repo.getBasketByIds(List.of("1", "999")).isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void getBasketByIds_keepsOldProduct_whenIdIsReaddedWithNewName() {
+        //GIVEN
+        List<Product> basket = repo.getBasketByIds(List.of("1")).orElseThrow();
+
+        //WHEN
+        repo.addProduct(new Product("1", "Gruener Apfel"));
+
+        //THEN
+        assertEquals(List.of(new Product("1", "Apfel")), basket);
+        assertEquals(List.of(new Product("1", "Gruener Apfel")), repo.getBasketByIds(List.of("1")).orElseThrow());
+    }
+
+    @org.junit.jupiter.api.Test
+    void removeProduct_keepsOtherProductsInInsertionOrder() {
+        //GIVEN
+        repo.addProduct(new Product("2", "Banane"));
+        repo.addProduct(new Product("3", "Kiwi"));
+
+        //WHEN
+        repo.removeProduct("2");
+
+        //THEN
+        assertEquals(List.of(new Product("1", "Apfel"), new Product("3", "Kiwi")), repo.getProducts());
+    }
+
+    @org.junit.jupiter.api.Test
+    void getOrdinal_shouldStayStable_whenProductIsRemovedOrUnknown() {
+        //GIVEN
+        Product unknown = new Product("9", "Kiwi");
+        int appleOrdinal = repo.getOrdinal(new Product("1", "Apfel"));
+
+        //WHEN
+        repo.removeProduct("1");
+        int unknownOrdinal = repo.getOrdinal(unknown);
+
+        //THEN
+        assertEquals(appleOrdinal, repo.getOrdinal(new Product("1", "Apfel")));
+        assertEquals(new Product("1", "Apfel"), repo.getProductByOrdinal(appleOrdinal));
+        assertEquals(unknown, repo.getProductByOrdinal(unknownOrdinal));
+        assertTrue(repo.getProductById("9").isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void getBasketByIds_shouldKeepCatalogueProduct_whenStoredOrderRegistersSameIdUnderOtherName() {
+        //GIVEN
+        int appleOrdinal = repo.getOrdinal(new Product("1", "Apfel"));
+
+        //WHEN
+        int pearOrdinal = repo.getOrdinal(new Product("1", "Birne"));
+
+        //THEN
+        assertNotEquals(appleOrdinal, pearOrdinal);
+        assertEquals(List.of(new Product("1", "Apfel")), repo.getBasketByIds(List.of("1")).orElseThrow());
+        assertEquals(appleOrdinal, repo.getOrdinal(new Product("1", "Apfel")));
+        assertEquals(pearOrdinal, repo.getOrdinal(new Product("1", "Birne")));
+    }
+
+    @org.junit.jupiter.api.Test
+    void setProductsEqualsAndToString_shouldWorkOnTheCatalogue() {
+        //GIVEN
+        ProductRepo other = new ProductRepo();
+
+        //WHEN
+        other.setProducts(List.of(new Product("1", "Apfel")));
+
+        //THEN
+        assertEquals(repo, other);
+        assertEquals(repo.hashCode(), other.hashCode());
+        assertEquals("ProductRepo(products=[Product[id=1, name=Apfel]])", other.toString());
+        other.setProducts(List.of(new Product("2", "Banane")));
+        assertNotEquals(repo, other);
+        assertTrue(other.getProductById("1").isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void getOrdinal_shouldHandOutOneOrdinalPerProduct_whenRegisteringWhileBasketsAreResolved() throws Exception {
+        //GIVEN
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //WHEN
+        try {
+            for (int thread = 0; thread < 3; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // every thread registers the same new products, so registrations race on each of them
+                    for (int i = 0; i < perThread; i++) {
+                        repo.getOrdinal(new Product("n" + i, "Neu " + i));
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    assertEquals(List.of(new Product("1", "Apfel")), repo.getBasketByIds(List.of("1")).orElseThrow());
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        int appleOrdinal = repo.getOrdinal(new Product("1", "Apfel"));
+        for (int i = 0; i < perThread; i++) {
+            Product product = new Product("n" + i, "Neu " + i);
+            int ordinal = repo.getOrdinal(product);
+            assertEquals(product, repo.getProductByOrdinal(ordinal));
+            assertTrue(ordinal > appleOrdinal && ordinal <= perThread, "ordinal " + ordinal);
+        }
+    }
 }
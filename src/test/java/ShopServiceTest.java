@@ -1,16 +1,24 @@
+import enums.Operation;
 import enums.OrderStatus;
+import metrics.RecordingShopMetrics;
 import model.Order;
 import model.Product;
+import model.ReplayProgress;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import repository.*;
+import service.OrderStatistics;
 import service.ShopService;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +59,30 @@ class ShopServiceTest {
         assertThrows(NoSuchFieldError.class, () -> shopService.addOrder(productsIds));
     }
 
+    @Test
+    void addOrders_shouldStoreOneOrderPerBasket() {
+        //GIVEN
+        shopService.getProductRepo().addProduct(new Product("2", "Banane"));
+
+        //WHEN
+        List<Order> actual = shopService.addOrders(List.of(List.of("1"), List.of("1", "2"), List.of("2")));
+
+        //THEN
+        assertEquals(3, actual.size());
+        assertEquals(List.of(new Product("1", "Apfel"), new Product("2", "Banane")), actual.get(1).products());
+        assertEquals(3, actual.stream().map(Order::id).distinct().count());
+        assertEquals(3, shopService.getOrders().size());
+    }
+
+    @Test
+    void addOrders_whenOneProductIdIsInvalid_expectNoSuchFieldErrorAndNoOrderStored() {
+        //GIVEN
+        List<List<String>> baskets = List.of(List.of("1"), List.of("1", "2"));
+
+        assertThrows(NoSuchFieldError.class, () -> shopService.addOrders(baskets));
+        assertTrue(shopService.getOrders().isEmpty());
+    }
+
     @Test
     void getOrdersByOrderStatus_returnsOrderList_whenOrderWithStatusExists() {
         shopService.addOrder(List.of("1"));
@@ -106,6 +138,74 @@ class ShopServiceTest {
         assertEquals(order.id(), completedOrders.get(0).id());
     }
 
+    @Test
+    void orderStatistics_shouldFollowAddsAndUpdates() {
+        //GIVEN
+        shopService.getProductRepo().addProduct(new Product("2", "Banane"));
+        Order order = shopService.addOrder(List.of("1", "1", "2"));
+        shopService.addOrders(List.of(List.of("2"), List.of("1")));
+
+        //WHEN
+        shopService.updateOrder(order.id(), OrderStatus.IN_DELIVERY);
+
+        //THEN
+        OrderStatistics statistics = shopService.getOrderStatistics();
+        assertEquals(2, statistics.getOrderCount(OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getOrderCount(OrderStatus.IN_DELIVERY));
+        assertEquals(2, statistics.getUnitCount("1", OrderStatus.IN_DELIVERY));
+        assertEquals(1, statistics.getUnitCount("1", OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getUnitCount("2", OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getTransitionCount(OrderStatus.PROCESSING, OrderStatus.IN_DELIVERY));
+        assertEquals(0, statistics.getUnitCount("999", OrderStatus.PROCESSING));
+    }
+
+    @Test
+    void orderStatistics_shouldStartFromOrdersAlreadyInRepo() {
+        //GIVEN
+        OrderRepo prefilled = new OrderMapRepo();
+        Product apple = new Product("1", "Apfel");
+        prefilled.addOrder(new Order("A", List.of(apple, apple), OrderStatus.PROCESSING, ZonedDateTime.now()));
+        prefilled.addOrder(new Order("B", List.of(apple), OrderStatus.COMPLETED, ZonedDateTime.now()));
+        ShopService service = new ShopService(shopService.getProductRepo(), prefilled, new StringIdGeneratorRepo());
+
+        //WHEN
+        service.updateOrder("A", OrderStatus.IN_DELIVERY);
+
+        //THEN
+        OrderStatistics statistics = service.getOrderStatistics();
+        assertEquals(0, statistics.getOrderCount(OrderStatus.PROCESSING));
+        assertEquals(1, statistics.getOrderCount(OrderStatus.IN_DELIVERY));
+        assertEquals(1, statistics.getOrderCount(OrderStatus.COMPLETED));
+        assertEquals(2, statistics.getUnitCount("1", OrderStatus.IN_DELIVERY));
+        assertEquals(0, statistics.getUnitCount("1", OrderStatus.PROCESSING));
+    }
+
+    @Test
+    void metrics_shouldCountCallsAndErrors_whenEnabled() {
+        //GIVEN
+        RecordingShopMetrics metrics = new RecordingShopMetrics();
+        ShopService instrumented = new ShopService(shopService.getProductRepo(), new InstrumentedOrderRepo(new OrderMapRepo(), metrics), new StringIdGeneratorRepo());
+        instrumented.setMetrics(metrics);
+
+        //WHEN
+        Order order = instrumented.addOrder(List.of("1"));
+        instrumented.updateOrder(order.id(), OrderStatus.COMPLETED);
+        assertThrows(NoSuchFieldError.class, () -> instrumented.addOrder(List.of("999")));
+
+        //THEN
+        assertEquals(2, metrics.getCallCount(Operation.ADD_ORDER));
+        assertEquals(1, metrics.getErrorCount(Operation.ADD_ORDER));
+        assertEquals(1, metrics.getCallCount(Operation.UPDATE_ORDER));
+        assertEquals(1, metrics.getCallCount(Operation.REPO_ADD_ORDER));
+        assertEquals(1, metrics.getCallCount(Operation.REPO_UPDATE_ORDER));
+        assertEquals(2, metrics.getLatencies(Operation.ADD_ORDER).totalCount());
+        String text = metrics.exportText();
+        assertTrue(text.contains("shop_operation_calls_total{operation=\"add_order\"} 2"));
+        assertTrue(text.contains("shop_operation_errors_total{operation=\"add_order\"} 1"));
+        assertTrue(text.contains("shop_operation_latency_nanos{operation=\"update_order\",quantile=\"0.99\"}"));
+        assertFalse(text.contains("get_orders_by_status"));
+    }
+
     @Test
     void updateOrder_whenOrderNotExists_shouldThrowException() {
         //GIVEN
@@ -119,6 +219,86 @@ class ShopServiceTest {
     }
 
 
+    @Test
+    void updateOrder_whenTransitionIsNotAllowed_shouldThrowBeforeWriting() {
+        //GIVEN
+        Order order = shopService.addOrder(List.of("1"));
+        Order completed = shopService.updateOrder(order.id(), OrderStatus.COMPLETED);
+
+        //WHEN & THEN
+        assertThrows(IllegalArgumentException.class, () -> shopService.updateOrder(order.id(), OrderStatus.PROCESSING));
+        assertThrows(IllegalArgumentException.class, () -> shopService.compareAndUpdateOrder(order.id(), completed.version(), OrderStatus.IN_DELIVERY));
+        assertEquals(completed, shopService.getOrderRepo().getOrderById(order.id()));
+        assertEquals(0, shopService.getOrderStatistics().getTransitionCount(OrderStatus.COMPLETED, OrderStatus.PROCESSING));
+    }
+
+    @Test
+    void compareAndUpdateOrder_shouldOnlyUpdateExpectedVersion() {
+        //GIVEN
+        Order order = shopService.addOrder(List.of("1"));
+        shopService.updateOrder(order.id(), OrderStatus.IN_DELIVERY);
+
+        //WHEN
+        Order updated = shopService.compareAndUpdateOrder(order.id(), 1, OrderStatus.COMPLETED);
+
+        //THEN
+        assertEquals(OrderStatus.COMPLETED, updated.orderStatus());
+        assertEquals(2, updated.version());
+        assertThrows(ConcurrentModificationException.class, () -> shopService.compareAndUpdateOrder(order.id(), 1, OrderStatus.PROCESSING));
+        assertThrows(IllegalArgumentException.class, () -> shopService.compareAndUpdateOrder("999", 0, OrderStatus.PROCESSING));
+        assertEquals(1, shopService.getOrderStatistics().getTransitionCount(OrderStatus.IN_DELIVERY, OrderStatus.COMPLETED));
+    }
+
+    @Test
+    void updateOrderWithRetry_shouldReadAgainAndRetry_whenAnotherWriterWins() {
+        //GIVEN
+        // a writer that sneaks in one blind update right before the first compare-and-set
+        OrderMapRepo racingRepo = new OrderMapRepo() {
+            private boolean raced;
+
+            @Override
+            public Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+                if (!raced) {
+                    raced = true;
+                    updateOrder(orderId, OrderStatus.IN_DELIVERY);
+                }
+                return super.updateOrder(orderId, expectedVersion, orderStatus);
+            }
+        };
+        ShopService service = new ShopService(shopService.getProductRepo(), racingRepo, new StringIdGeneratorRepo());
+        Order order = service.addOrder(List.of("1"));
+        List<OrderStatus> seenStatuses = new ArrayList<>();
+
+        //WHEN
+        Order updated = service.updateOrderWithRetry(order.id(), current -> {
+            seenStatuses.add(current.orderStatus());
+            return OrderStatus.COMPLETED;
+        }, 3);
+
+        //THEN
+        assertEquals(List.of(OrderStatus.PROCESSING, OrderStatus.IN_DELIVERY), seenStatuses);
+        assertEquals(2, updated.version());
+        assertEquals(1, service.getOrderStatistics().getTransitionCount(OrderStatus.IN_DELIVERY, OrderStatus.COMPLETED));
+    }
+
+    @Test
+    void updateOrderWithRetry_shouldThrowConcurrentModificationException_whenEveryAttemptLoses() {
+        //GIVEN
+        OrderMapRepo alwaysRacingRepo = new OrderMapRepo() {
+            @Override
+            public Optional<Order> updateOrder(String orderId, long expectedVersion, OrderStatus orderStatus) {
+                updateOrder(orderId, OrderStatus.IN_DELIVERY);
+                return super.updateOrder(orderId, expectedVersion, orderStatus);
+            }
+        };
+        ShopService service = new ShopService(shopService.getProductRepo(), alwaysRacingRepo, new StringIdGeneratorRepo());
+        Order order = service.addOrder(List.of("1"));
+
+        //WHEN & THEN
+        assertThrows(ConcurrentModificationException.class, () -> service.updateOrderWithRetry(order.id(), current -> OrderStatus.COMPLETED, 3));
+        assertEquals(3, alwaysRacingRepo.getOrderById(order.id()).version());
+    }
+
     @Test
     void updateOrder_whenMultipleOrders_shouldUpdateCorrectOrder() {
         //GIVEN
@@ -406,4 +586,26 @@ class ShopServiceTest {
         }
     }
 
+    @Test
+    void processCommandsFromFile_shouldReportFinalProgress_whenStreamingFile() throws IOException {
+        //GIVEN
+        Path testFile = Files.createTempFile("test-progress", ".txt");
+        Files.writeString(testFile, "addOrder A 1\naddOrder B 1\nsetStatus A COMPLETED\n");
+        List<ReplayProgress> reports = new ArrayList<>();
+
+        try {
+            //WHEN
+            shopService.processCommandsFromFile(testFile, reports::add);
+
+            //THEN
+            ReplayProgress last = reports.get(reports.size() - 1);
+            assertEquals(3, last.linesProcessed());
+            assertEquals(Files.size(testFile), last.bytesRead());
+            assertEquals(Files.size(testFile), last.totalBytes());
+            assertEquals(2, shopService.getOrders().size());
+        } finally {
+            Files.deleteIfExists(testFile);
+        }
+    }
+
 }
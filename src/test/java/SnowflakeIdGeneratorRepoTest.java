@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+import repository.SnowflakeIdGeneratorRepo;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorRepoTest {
+
+    private static final Instant FIXED_INSTANT = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Test
+    void generateId_shouldReturnFixedWidthIdsInGenerationOrder_whenClockStandsStill() {
+        //GIVEN
+        SnowflakeIdGeneratorRepo generator = new SnowflakeIdGeneratorRepo(7, Clock.fixed(FIXED_INSTANT, ZoneOffset.UTC));
+
+        //WHEN
+        // more ids than fit into one millisecond, so the sequence has to roll over
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.generateId());
+        }
+
+        //THEN
+        List<String> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        assertEquals(ids, sorted);
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertTrue(ids.stream().allMatch(id -> id.length() == 13));
+    }
+
+    @Test
+    void generateIds_shouldContinueSequenceOfSingleIds() {
+        //GIVEN
+        SnowflakeIdGeneratorRepo generator = new SnowflakeIdGeneratorRepo(7, Clock.fixed(FIXED_INSTANT, ZoneOffset.UTC));
+        String first = generator.generateId();
+
+        //WHEN
+        List<String> block = generator.generateIds(5_000);
+        String last = generator.generateId();
+
+        //THEN
+        List<String> ids = new ArrayList<>();
+        ids.add(first);
+        ids.addAll(block);
+        ids.add(last);
+        List<String> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        assertEquals(ids, sorted);
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+    }
+
+    @Test
+    void timestampOf_shouldReturnGenerationTime() {
+        //GIVEN
+        SnowflakeIdGeneratorRepo generator = new SnowflakeIdGeneratorRepo(SnowflakeIdGeneratorRepo.MAX_NODE_ID, Clock.fixed(FIXED_INSTANT, ZoneOffset.UTC));
+
+        //WHEN
+        String id = generator.generateId();
+
+        //THEN
+        assertEquals(FIXED_INSTANT, SnowflakeIdGeneratorRepo.timestampOf(id));
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGeneratorRepo(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGeneratorRepo(SnowflakeIdGeneratorRepo.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    void generateId_shouldReturnUniqueIds_whenCalledFromManyThreads() throws Exception {
+        //GIVEN
+        SnowflakeIdGeneratorRepo generator = new SnowflakeIdGeneratorRepo(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //WHEN
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.generateId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        assertEquals(80_000, ids.size());
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+import repository.ThreadLocalSequenceIdGeneratorRepo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ThreadLocalSequenceIdGeneratorRepoTest {
+
+    @Test
+    void generateId_shouldReturnConsecutiveIds_whenCalledFromOneThread() {
+        //GIVEN
+        ThreadLocalSequenceIdGeneratorRepo generator = new ThreadLocalSequenceIdGeneratorRepo();
+
+        //WHEN
+        String first = generator.generateId();
+        String second = generator.generateId();
+
+        //THEN
+        assertNotEquals(first, second);
+        assertEquals(first.substring(0, first.lastIndexOf('-')), second.substring(0, second.lastIndexOf('-')));
+    }
+
+    @Test
+    void generateId_shouldReturnUniqueIds_whenCalledFromManyThreads() throws Exception {
+        //GIVEN
+        ThreadLocalSequenceIdGeneratorRepo generator = new ThreadLocalSequenceIdGeneratorRepo();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //WHEN
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.generateId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //THEN
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void generateId_shouldReturnDifferentIds_fromGeneratorsCreatedInTheSameMillisecondOnTheSameNode() {
+        //GIVEN
+        Set<String> ids = new HashSet<>();
+
+        //WHEN
+        for (int i = 0; i < 100; i++) {
+            ids.add(new ThreadLocalSequenceIdGeneratorRepo(7).generateId());
+        }
+
+        //THEN
+        assertEquals(100, ids.size());
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenNodeIdIsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadLocalSequenceIdGeneratorRepo(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadLocalSequenceIdGeneratorRepo(1024));
+    }
+}
@@ -42,4 +42,12 @@ class CommandsTest {
         assertThrows(IllegalArgumentException.class, () -> Commands.fromString("invalid"));
         assertThrows(IllegalArgumentException.class, () -> Commands.fromString(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void fromChars_shouldResolveCommandInsideWindow() {
+        char[] chars = " setStatus A".toCharArray();
+        assertEquals(Commands.SET_STATUS, Commands.fromChars(chars, 1, 10));
+        assertNull(Commands.fromChars(chars, 1, 9));
+        assertNull(Commands.fromChars(chars, 0, 0));
+    }
+}
@@ -4,8 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class OrderStatusTest {
 
@@ -23,4 +22,36 @@ class OrderStatusTest {
         assertFalse(OrderStatus.isValid("invalid"));
         assertFalse(OrderStatus.isValid(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void fromChars_shouldResolveStatusInsideWindow() {
+        char[] chars = "x COMPLETED".toCharArray();
+        assertEquals(OrderStatus.COMPLETED, OrderStatus.fromChars(chars, 2, 11));
+        assertNull(OrderStatus.fromChars(chars, 2, 10));
+        assertNull(OrderStatus.fromChars(chars, 2, 2));
+        assertNull(OrderStatus.fromChars("CANCELLED".toCharArray(), 0, 9));
+    }
+
+    @Test
+    void fromName_shouldResolveEveryStatus_andRejectUnknownNames() {
+        for (OrderStatus status : OrderStatus.values()) {
+            assertEquals(status, OrderStatus.fromName(status.name()));
+        }
+        assertNull(OrderStatus.fromName("PROCESSINGX"));
+        assertNull(OrderStatus.fromName("processing"));
+        assertNull(OrderStatus.fromName("Ä"));
+    }
+
+    @Test
+    void canTransitionTo_shouldOnlyAllowForwardMovesAndRepeats() {
+        assertTrue(OrderStatus.PROCESSING.canTransitionTo(OrderStatus.IN_DELIVERY));
+        assertTrue(OrderStatus.PROCESSING.canTransitionTo(OrderStatus.COMPLETED));
+        assertTrue(OrderStatus.IN_DELIVERY.canTransitionTo(OrderStatus.COMPLETED));
+        for (OrderStatus status : OrderStatus.values()) {
+            assertTrue(status.canTransitionTo(status));
+        }
+        assertFalse(OrderStatus.IN_DELIVERY.canTransitionTo(OrderStatus.PROCESSING));
+        assertFalse(OrderStatus.COMPLETED.canTransitionTo(OrderStatus.PROCESSING));
+        assertFalse(OrderStatus.COMPLETED.canTransitionTo(OrderStatus.IN_DELIVERY));
+    }
+}
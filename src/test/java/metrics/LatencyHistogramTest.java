@@ -0,0 +1,39 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketOf_shouldKeepEveryValueWithinThreePercentOfItsBucketBound() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            long bound = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertTrue(bound >= value, "bound below value " + value);
+            assertTrue(bound - value <= value / 32, "bucket too wide for " + value);
+        }
+        long largest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, largest);
+    }
+
+    @Test
+    void snapshot_shouldReportPercentilesAndMax() {
+        //GIVEN
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //WHEN
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        //THEN
+        assertEquals(1000, snapshot.totalCount());
+        assertEquals(1_000_000, snapshot.max());
+        assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 / 32.0);
+        assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 / 32.0);
+        assertEquals(1_000_000, snapshot.valueAtPercentile(99.9), 1_000_000 / 32.0);
+        assertEquals(0, new LatencyHistogram().snapshot().valueAtPercentile(99));
+    }
+}